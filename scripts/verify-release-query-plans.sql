@@ -0,0 +1,124 @@
+-- Verifies that the release queries are served by the release indexes of V10 and V11.
+--
+-- Seeds 1000 projects with 1000 releases each, explains the statements Hibernate sends for the
+-- release queries with their parameters bound, and fails if a plan does not use the expected
+-- index. Everything happens in a transaction that is rolled back, so the database is left as it
+-- was. Generic plans are forced, as the JDBC driver switches to them for statements it has
+-- prepared on the server, which needs Postgres 12 or later.
+--
+-- The statements below are copies of what org.hibernate.SQL logs for ReleaseRepository and
+-- ReleaseIngestionService, and must be kept in sync with those queries.
+--
+-- Run against a database migrated by Flyway:
+--
+--   psql -d development -f scripts/verify-release-query-plans.sql
+
+\set ON_ERROR_STOP on
+
+begin;
+
+set local search_path = versionmonitor;
+set local plan_cache_mode = force_generic_plan;
+
+-- Negative ids stay clear of the sequences and of any existing rows
+insert into project (id, name, identifier)
+  select -p, 'plan-check-' || p, 'plan-check/' || p
+  from generate_series(1, 1000) p;
+
+insert into releases (id, project_id, version, url, released_at)
+  select -(p * 1000 + r), -p, (r / 100) || '.' || (r % 100) || '.0',
+      'https://example.com/releases/' || r, timestamp '2000-01-01' + r * interval '1 day'
+  from generate_series(1, 1000) p, generate_series(1, 1000) r;
+
+analyze project;
+analyze releases;
+
+-- Parameters are declared with the types the JDBC driver binds: Long as int8, String as varchar
+-- and the page size as int4. Dates are sent untyped, so they take the type of their column.
+
+-- ReleaseRepository.findByProjectId
+prepare find_by_project_id(int8) as
+  select release0_.id as id1_5_, release0_.project_id as project_5_5_,
+      release0_.released_at as released2_5_, release0_.url as url3_5_,
+      release0_.version as version4_5_
+  from versionmonitor.releases release0_
+  left outer join versionmonitor.project project1_ on release0_.project_id = project1_.id
+  where project1_.id = $1;
+
+-- ReleaseRepository.findVersionsByProjectId
+prepare find_versions_by_project_id(int8) as
+  select release0_.version as col_0_0_
+  from versionmonitor.releases release0_
+  where release0_.project_id = $1;
+
+-- ReleaseRepository.findPage
+prepare find_page(int8, varchar, int4) as
+  select release0_.id as id1_5_, release0_.project_id as project_5_5_,
+      release0_.released_at as released2_5_, release0_.url as url3_5_,
+      release0_.version as version4_5_
+  from versionmonitor.releases release0_
+  where release0_.project_id = $1 and (release0_.version like $2 escape '!')
+  order by release0_.released_at desc, release0_.id desc
+  limit $3;
+
+-- ReleaseRepository.findPageBefore
+prepare find_page_before(int8, varchar, timestamp, timestamp, int8, int4) as
+  select release0_.id as id1_5_, release0_.project_id as project_5_5_,
+      release0_.released_at as released2_5_, release0_.url as url3_5_,
+      release0_.version as version4_5_
+  from versionmonitor.releases release0_
+  where release0_.project_id = $1 and (release0_.version like $2 escape '!')
+    and (release0_.released_at < $3 or release0_.released_at = $4 and release0_.id < $5)
+  order by release0_.released_at desc, release0_.id desc
+  limit $6;
+
+-- ReleaseIngestionService.INSERT_RELEASES, which explain does not execute
+prepare insert_releases(int8, varchar) as
+  insert into versionmonitor.releases (id, project_id, version, url, released_at)
+  select r.id, $1, r.version, r.url, r.released_at
+  from json_to_recordset(cast($2 as json))
+    as r(id bigint, version varchar, url varchar, released_at timestamp)
+  on conflict (project_id, version) do nothing
+  returning id;
+
+create function pg_temp.expect_plan(query text, statement text, expected text) returns void
+language plpgsql as $$
+declare
+  line text;
+  plan text := '';
+begin
+  for line in execute 'explain ' || statement loop
+    plan := plan || E'\n' || line;
+  end loop;
+
+  if plan !~ expected or plan ~ 'Seq Scan on releases|Sort' then
+    raise exception '% is not served by the expected index:%', query, plan;
+  end if;
+
+  raise notice '% uses the expected index', query;
+end
+$$;
+
+select pg_temp.expect_plan('findByProjectId',
+    'execute find_by_project_id(-500)',
+    'Index (Only )?Scan (Backward )?(using|on) releases_project_');
+
+select pg_temp.expect_plan('findVersionsByProjectId',
+    'execute find_versions_by_project_id(-500)',
+    'Index (Only )?Scan (Backward )?(using|on) releases_project_');
+
+-- Listing without a version filter must read the releases in order, rather than sort them. With
+-- a version prefix, the version index followed by a sort may well be cheaper, and is fine.
+select pg_temp.expect_plan('findPage',
+    'execute find_page(-500, ''%'', 100)',
+    'Index Scan (Backward )?using releases_project_released_at_idx');
+
+select pg_temp.expect_plan('findPageBefore',
+    'execute find_page_before(-500, ''%'', ''2001-01-01'', ''2001-01-01'', -500200, 100)',
+    'Index Scan (Backward )?using releases_project_released_at_idx');
+
+select pg_temp.expect_plan('ingest',
+    'execute insert_releases(-500, ''[]'')',
+    'Conflict Arbiter Indexes: releases_project_version_key');
+
+rollback;
@@ -0,0 +1,42 @@
+package net.evenh.versionmonitor.api;
+
+import java.util.List;
+import java.util.function.Function;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+/**
+ * Builds responses for keyset paginated list endpoints.
+ *
+ * <p>A full page links to the next page in the <code>Link</code> header, by repeating the current
+ * request with <code>after</code> set to the last item of the page. A page with fewer items than
+ * the limit is the last one.</p>
+ */
+public final class PageLinks {
+  private PageLinks() {
+  }
+
+  /**
+   * Responds with a page of items, linking to the next page if there may be one.
+   *
+   * @param items The items of the page.
+   * @param limit The page size the items were fetched with.
+   * @param cursor Gives the value of <code>after</code> to continue after an item.
+   */
+  public static <T> ResponseEntity<List<T>> page(List<T> items, int limit,
+      Function<T, ?> cursor) {
+    if (items.size() < limit) {
+      return ResponseEntity.ok(items);
+    }
+
+    final String next = ServletUriComponentsBuilder.fromCurrentRequest()
+        .replaceQueryParam("after", cursor.apply(items.get(items.size() - 1)))
+        .replaceQueryParam("limit", limit)
+        .toUriString();
+
+    return ResponseEntity.ok()
+        .header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"")
+        .body(items);
+  }
+}
@@ -0,0 +1,56 @@
+package net.evenh.versionmonitor.api.controllers;
+
+import com.fasterxml.jackson.annotation.JsonView;
+import java.io.IOException;
+import java.util.Optional;
+import net.evenh.versionmonitor.api.exceptions.InvalidSignatureException;
+import net.evenh.versionmonitor.api.exceptions.WebhookNotConfiguredException;
+import net.evenh.versionmonitor.application.hosts.github.GitHubWebhookService;
+import net.evenh.versionmonitor.domain.releases.Release;
+import net.evenh.versionmonitor.infrastructure.View;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Receives signed webhook deliveries from GitHub.
+ */
+@RestController
+@RequestMapping("/api/hooks/github")
+public class GitHubHookController {
+  @Autowired
+  private GitHubWebhookService webhookService;
+
+  /**
+   * Handles a webhook delivery.
+   *
+   * @return The new release with HTTP 201 if the delivery held one, HTTP 204 otherwise.
+   */
+  @JsonView(View.Detail.class)
+  @RequestMapping(method = RequestMethod.POST)
+  public ResponseEntity receive(
+      @RequestHeader(value = "X-GitHub-Event", required = false) String event,
+      @RequestHeader(value = "X-Hub-Signature-256", required = false) String signature,
+      @RequestBody byte[] payload) throws IOException {
+    if (!webhookService.isEnabled()) {
+      throw new WebhookNotConfiguredException();
+    }
+
+    if (!webhookService.hasValidSignature(payload, signature)) {
+      throw new InvalidSignatureException();
+    }
+
+    Optional<Release> release = webhookService.handle(event, payload);
+
+    if (!release.isPresent()) {
+      return ResponseEntity.noContent().build();
+    }
+
+    return new ResponseEntity<>(release.get(), HttpStatus.CREATED);
+  }
+}
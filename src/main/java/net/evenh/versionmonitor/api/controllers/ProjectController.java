@@ -4,8 +4,10 @@ import com.fasterxml.jackson.annotation.JsonView;
 import java.util.List;
 import java.util.Optional;
 import javax.validation.Valid;
+import net.evenh.versionmonitor.api.PageLinks;
 import net.evenh.versionmonitor.api.commands.AddProjectCommand;
 import net.evenh.versionmonitor.api.exceptions.DuplicateProjectException;
+import net.evenh.versionmonitor.api.exceptions.InvalidCursorException;
 import net.evenh.versionmonitor.api.exceptions.NoProjectsExistsException;
 import net.evenh.versionmonitor.api.exceptions.ProjectNotFoundException;
 import net.evenh.versionmonitor.api.exceptions.SubscriptionAlreadyLinkedToProjectException;
@@ -16,17 +18,23 @@ import net.evenh.versionmonitor.domain.hosts.HostRegistry;
 import net.evenh.versionmonitor.domain.hosts.HostService;
 import net.evenh.versionmonitor.domain.projects.Project;
 import net.evenh.versionmonitor.domain.projects.ProjectService;
+import net.evenh.versionmonitor.domain.projects.ProjectSummary;
+import net.evenh.versionmonitor.domain.releases.Release;
+import net.evenh.versionmonitor.domain.releases.ReleaseService;
 import net.evenh.versionmonitor.domain.subscriptions.Subscription;
 import net.evenh.versionmonitor.infrastructure.View;
+import net.evenh.versionmonitor.infrastructure.config.VersionmonitorConfiguration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 /**
@@ -49,21 +57,31 @@ public class ProjectController {
   @Autowired
   private HostRegistry registry;
 
+  @Autowired
+  private ReleaseService releaseService;
+
+  @Autowired
+  private VersionmonitorConfiguration props;
+
   /**
-   * Get all existing projects.
+   * Get a page of existing projects, ordered by id.
    *
-   * @return A list of existing projects.
+   * @param after The id of the last project of the previous page.
+   * @param limit The maximum number of projects to return.
+   * @return A list of existing projects, linking to the next page if there may be one.
    */
   @JsonView(View.Summary.class)
   @RequestMapping(method = RequestMethod.GET)
-  public ResponseEntity getAllProjects() {
-    List<Project> projects = projectService.findAll();
+  public ResponseEntity getAllProjects(@RequestParam(required = false) Long after,
+      @RequestParam(required = false) Integer limit) {
+    final int size = props.getApi().pageSize(limit);
+    List<ProjectSummary> projects = projectService.findSummaries(after, size);
 
-    if (projects.isEmpty()) {
+    if (projects.isEmpty() && after == null) {
       throw new NoProjectsExistsException();
     }
 
-    return ResponseEntity.ok(projects);
+    return PageLinks.page(projects, size, ProjectSummary::getId);
   }
 
   /**
@@ -90,7 +108,16 @@ public class ProjectController {
           Optional<? extends Project> proj = hostService.get().getProject(command.getIdentifier());
 
           if (proj.isPresent()) {
-            Project saved = projectService.persist(proj.get());
+            final Project saved;
+
+            try {
+              saved = projectService.persist(proj.get());
+            } catch (DataIntegrityViolationException e) {
+              // Added concurrently, after the duplicate check
+              logger.info("Project '{}' was added concurrently", command.getIdentifier());
+              throw new DuplicateProjectException();
+            }
+
             logger.info("Successfully added project: {}", saved);
             return new ResponseEntity<>(saved, HttpStatus.CREATED);
           }
@@ -102,7 +129,8 @@ public class ProjectController {
   }
 
   /**
-   * Gets a single project by primary key.
+   * Gets a single project by primary key, with its subscriptions. Its releases are listed by
+   * {@link #getReleases(Long, Long, Integer, String)}.
    *
    * @param id The primary key of an <code>Project</code>.
    * @return The project found by primary key on success, a JSON error response otherwise.
@@ -110,7 +138,7 @@ public class ProjectController {
   @JsonView(View.Detail.class)
   @RequestMapping(value = "/{id}", method = RequestMethod.GET)
   public ResponseEntity getOne(@PathVariable Long id) {
-    Optional<Project> project = projectService.findOne(id);
+    Optional<Project> project = projectService.findWithSubscriptions(id);
 
     if (!project.isPresent()) {
       throw new ProjectNotFoundException();
@@ -119,6 +147,37 @@ public class ProjectController {
     return ResponseEntity.ok(project);
   }
 
+  /**
+   * Gets a page of the releases of a project, newest first.
+   *
+   * @param id The primary key of an <code>Project</code>.
+   * @param after The id of the last release of the previous page.
+   * @param limit The maximum number of releases to return.
+   * @param version Only releases whose version starts with this are returned.
+   * @return A list of releases, linking to the next page if there may be one.
+   */
+  @JsonView(View.Detail.class)
+  @RequestMapping(value = "/{id}/releases", method = RequestMethod.GET)
+  public ResponseEntity getReleases(@PathVariable Long id,
+      @RequestParam(required = false) Long after,
+      @RequestParam(required = false) Integer limit,
+      @RequestParam(required = false) String version) {
+    if (!projectService.exists(id)) {
+      throw new ProjectNotFoundException();
+    }
+
+    Release afterRelease = null;
+
+    if (after != null) {
+      afterRelease = releaseService.findOne(id, after).orElseThrow(InvalidCursorException::new);
+    }
+
+    final int size = props.getApi().pageSize(limit);
+    List<Release> releases = releaseService.findPage(id, version, afterRelease, size);
+
+    return PageLinks.page(releases, size, Release::getId);
+  }
+
   /**
    * Links a <code>Subscription</code> to a given project.
    * @param id The id of the project.
@@ -128,7 +187,7 @@ public class ProjectController {
   @RequestMapping(value = "/{id}/subscribe/{subscriptionId}", method = RequestMethod.POST)
   public ResponseEntity addSubscriber(@PathVariable Long id, @PathVariable Long subscriptionId) {
     Optional<Subscription> subscriptionMaybe = subscriptionService.findOne(subscriptionId);
-    Optional<Project> projectMaybe = projectService.findOne(id);
+    Optional<Project> projectMaybe = projectService.findWithSubscriptions(id);
 
     if (!projectMaybe.isPresent()) {
       throw new ProjectNotFoundException();
@@ -160,7 +219,7 @@ public class ProjectController {
   @RequestMapping(value = "/{id}/unsubscribe/{subscriptionId}", method = RequestMethod.POST)
   public ResponseEntity removeSubscriber(@PathVariable Long id, @PathVariable Long subscriptionId) {
     Optional<Subscription> subscriptionMaybe = subscriptionService.findOne(subscriptionId);
-    Optional<Project> projectMaybe = projectService.findOne(id);
+    Optional<Project> projectMaybe = projectService.findWithSubscriptions(id);
 
     if (!projectMaybe.isPresent()) {
       throw new ProjectNotFoundException();
@@ -192,7 +251,7 @@ public class ProjectController {
    */
   @RequestMapping(value = "/{id}", method = RequestMethod.DELETE)
   public ResponseEntity deleteOne(@PathVariable Long id) {
-    Optional<Project> project = projectService.findOne(id);
+    Optional<Project> project = projectService.findWithSubscriptions(id);
 
     if (!project.isPresent()) {
       throw new ProjectNotFoundException();
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.annotation.JsonView;
 import java.util.List;
 import java.util.Optional;
 import javax.validation.Valid;
+import net.evenh.versionmonitor.api.PageLinks;
 import net.evenh.versionmonitor.api.commands.AddSubscriptionCommand;
 import net.evenh.versionmonitor.api.exceptions.NoSubscriptionsExistsException;
 import net.evenh.versionmonitor.api.exceptions.SubscriptionNotFoundException;
@@ -12,6 +13,7 @@ import net.evenh.versionmonitor.application.subscriptions.SubscriptionService;
 import net.evenh.versionmonitor.application.subscriptions.types.SlackSubscription;
 import net.evenh.versionmonitor.domain.subscriptions.Subscription;
 import net.evenh.versionmonitor.infrastructure.View;
+import net.evenh.versionmonitor.infrastructure.config.VersionmonitorConfiguration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -20,6 +22,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
@@ -29,19 +32,24 @@ public class SubscriptionController {
   @Autowired
   private SubscriptionService subscriptionService;
 
+  @Autowired
+  private VersionmonitorConfiguration props;
+
   /**
-   * Gets all subscriptions.
+   * Gets a page of subscriptions, ordered by id.
    */
   @JsonView(View.Summary.class)
   @RequestMapping(method = RequestMethod.GET)
-  public ResponseEntity getAll() {
-    List<Subscription> subscriptions = subscriptionService.findAll();
+  public ResponseEntity getAll(@RequestParam(required = false) Long after,
+      @RequestParam(required = false) Integer limit) {
+    final int size = props.getApi().pageSize(limit);
+    List<Subscription> subscriptions = subscriptionService.findPage(after, size);
 
-    if (subscriptions.isEmpty()) {
+    if (subscriptions.isEmpty() && after == null) {
       throw new NoSubscriptionsExistsException();
     }
 
-    return ResponseEntity.ok(subscriptions);
+    return PageLinks.page(subscriptions, size, Subscription::getId);
   }
 
   /**
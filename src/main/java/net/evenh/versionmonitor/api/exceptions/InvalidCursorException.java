@@ -0,0 +1,9 @@
+package net.evenh.versionmonitor.api.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+public class InvalidCursorException extends VersionmonitorException {
+  public InvalidCursorException() {
+    super(HttpStatus.BAD_REQUEST);
+  }
+}
@@ -0,0 +1,9 @@
+package net.evenh.versionmonitor.api.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+public class InvalidSignatureException extends VersionmonitorException {
+  public InvalidSignatureException() {
+    super(HttpStatus.UNAUTHORIZED);
+  }
+}
@@ -0,0 +1,9 @@
+package net.evenh.versionmonitor.api.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+public class WebhookNotConfiguredException extends VersionmonitorException {
+  public WebhookNotConfiguredException() {
+    super(HttpStatus.NOT_FOUND);
+  }
+}
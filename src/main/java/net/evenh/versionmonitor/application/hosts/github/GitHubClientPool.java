@@ -0,0 +1,175 @@
+package net.evenh.versionmonitor.application.hosts.github;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import net.evenh.versionmonitor.application.hosts.github.GitHubRateLimitBudget.RateLimit;
+import net.evenh.versionmonitor.infrastructure.config.VersionmonitorConfiguration;
+import okhttp3.OkHttpClient;
+import okhttp3.OkUrlFactory;
+import org.kohsuke.github.GitHub;
+import org.kohsuke.github.GitHubBuilder;
+import org.kohsuke.github.extras.OkHttp3Connector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Pool of GitHub clients, one per configured OAuth2 token.
+ *
+ * <p>Every token has its own rate limit, tracked by the {@link GitHubRateLimitBudget}. Calls go to
+ * the token with the most calls left, so the throughput scales with the number of tokens.</p>
+ *
+ * <p>Conditional requests are the exception. GitHub only honours validators for the token they were
+ * issued to, so every project is pinned to a token, see {@link #getToken(Long)}.</p>
+ */
+@Component
+public class GitHubClientPool implements InitializingBean {
+  private static final Logger log = LoggerFactory.getLogger(GitHubClientPool.class);
+
+  private final OkHttpClient httpClient;
+  private final GitHubRateLimitBudget budget;
+  private final VersionmonitorConfiguration props;
+  private final Map<String, GitHub> clients = new LinkedHashMap<>();
+
+  /**
+   * Creates a client pool sharing the application HTTP client.
+   */
+  @Autowired
+  public GitHubClientPool(OkHttpClient httpClient, GitHubRateLimitBudget budget,
+      VersionmonitorConfiguration props) {
+    this.httpClient = httpClient;
+    this.budget = budget;
+    this.props = props;
+  }
+
+  /**
+   * Connects to GitHub with every configured token.
+   *
+   * @throws IllegalArgumentException Thrown if no OAuth2 token is configured.
+   * @throws IOException              Thrown if there is problems communicating with GitHub
+   *                                  unrelated to the OAuth2 tokens.
+   */
+  @Override
+  public void afterPropertiesSet() throws IllegalArgumentException, IOException {
+    final List<String> tokens = new ArrayList<>(props.getGithub().getOauthTokens());
+    final String authToken = props.getGithub().getOauthToken();
+
+    if (authToken != null && !authToken.isEmpty() && !tokens.contains(authToken)) {
+      tokens.add(0, authToken);
+    }
+
+    tokens.removeIf(token -> token == null || token.isEmpty());
+
+    if (tokens.isEmpty()) {
+      throw new IllegalArgumentException("Missing GitHub OAuth2 token");
+    }
+
+    for (String token : tokens) {
+      try {
+        final GitHub gitHub = GitHubBuilder
+          .fromEnvironment()
+          .withEndpoint(props.getGithub().getApiUrl())
+          .withOAuthToken(token)
+          .withConnector(new OkHttp3Connector(new OkUrlFactory(httpClient)))
+          .build();
+
+        log.info("Connected to GitHub as: {}", gitHub.getMyself().getLogin());
+        clients.put(token, gitHub);
+      } catch (IOException e) {
+        log.warn("Caught exception while establishing a connection to GitHub", e);
+        throw e;
+      }
+    }
+  }
+
+  /**
+   * Gives the token with the most REST API calls left. Tokens without a known rate limit are
+   * preferred, so every token is put to use.
+   */
+  public String getToken() {
+    return mostCallsLeft(GitHubRateLimitBudget.CORE);
+  }
+
+  /**
+   * Gives the token with the most GraphQL API calls left, which are budgeted apart from the REST
+   * API calls.
+   */
+  public String getGraphQlToken() {
+    return mostCallsLeft(GitHubRateLimitBudget.GRAPHQL);
+  }
+
+  /**
+   * Gives the token pinned to a project, which stays the same as long as the configured tokens do.
+   *
+   * <p>Validators stored for the project are only honoured for the token they were issued to, so
+   * conditional requests must always use this token rather than the one with the most calls
+   * left.</p>
+   */
+  public String getToken(Long projectId) {
+    final List<String> tokens = new ArrayList<>(clients.keySet());
+
+    if (tokens.isEmpty()) {
+      throw new IllegalStateException("No GitHub clients configured");
+    }
+
+    return tokens.get(Math.floorMod(Long.hashCode(projectId), tokens.size()));
+  }
+
+  /**
+   * Gives the client of the token with the most calls left.
+   */
+  public GitHub getClient() {
+    return clients.get(getToken());
+  }
+
+  /**
+   * The rate limit of the token with the most calls left.
+   *
+   * @return The rate limit, or empty if it is not known yet.
+   */
+  public Optional<RateLimit> getRateLimit() {
+    return budget.getRateLimit(getToken());
+  }
+
+  /**
+   * The known rate limits of every token, labelled by the position of the token.
+   */
+  public Map<String, RateLimit> getRateLimits() {
+    final Map<String, RateLimit> rateLimits = new LinkedHashMap<>();
+    int index = 0;
+
+    for (String token : clients.keySet()) {
+      final String label = "token-" + index++;
+      budget.getRateLimit(token).ifPresent(rateLimit -> rateLimits.put(label, rateLimit));
+    }
+
+    return Collections.unmodifiableMap(rateLimits);
+  }
+
+  /**
+   * The number of clients in the pool.
+   */
+  public int size() {
+    return clients.size();
+  }
+
+  private String mostCallsLeft(String resource) {
+    return clients.keySet().stream()
+        .max(Comparator.comparingInt(token -> callsLeft(token, resource)))
+        .orElseThrow(() -> new IllegalStateException("No GitHub clients configured"));
+  }
+
+  private int callsLeft(String token, String resource) {
+    return budget.getRateLimit(token, resource)
+        .map(RateLimit::getCallsLeft)
+        .orElse(Integer.MAX_VALUE);
+  }
+}
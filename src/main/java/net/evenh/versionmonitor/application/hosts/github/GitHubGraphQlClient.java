@@ -0,0 +1,349 @@
+package net.evenh.versionmonitor.application.hosts.github;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import net.evenh.versionmonitor.infrastructure.config.VersionmonitorConfiguration;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fetches the latest tags of many GitHub repositories in a single GraphQL query.
+ *
+ * <p>Every repository is queried under its own alias, with its tags ordered by commit date, newest
+ * first. The commit date of each tag is part of the response, so no further lookups are needed to
+ * map the tags to releases.</p>
+ *
+ * <p>Commit dates of tags listed through other means can be looked up in bulk as well, instead of
+ * requesting every commit through the REST API.</p>
+ */
+@Component
+public class GitHubGraphQlClient {
+  private static final Logger log = LoggerFactory.getLogger(GitHubGraphQlClient.class);
+  private static final MediaType JSON = MediaType.parse("application/json; charset=utf-8");
+
+  /**
+   * The number of tags fetched per repository, which is the maximum GitHub allows.
+   */
+  static final int TAGS_PER_REPOSITORY = 100;
+
+  /**
+   * The number of commits looked up per query.
+   */
+  static final int COMMITS_PER_QUERY = 100;
+
+  private static final String TAG_FIELDS = "name target { "
+      + "... on Commit { authoredDate } "
+      + "... on Tag { target { ... on Commit { authoredDate } } } "
+      + "}";
+
+  private static final String REPOSITORY_FIELDS = "{ refs(refPrefix: \"refs/tags/\", first: "
+      + TAGS_PER_REPOSITORY + ", orderBy: {field: TAG_COMMIT_DATE, direction: DESC}) { "
+      + "totalCount nodes { " + TAG_FIELDS + " } } }";
+
+  private static final String ALL_TAGS_QUERY = "query($owner: String!, $name: String!, "
+      + "$after: String) { repository(owner: $owner, name: $name) { "
+      + "refs(refPrefix: \"refs/tags/\", first: " + TAGS_PER_REPOSITORY + ", after: $after, "
+      + "orderBy: {field: TAG_COMMIT_DATE, direction: DESC}) { "
+      + "pageInfo { hasNextPage endCursor } nodes { " + TAG_FIELDS + " } } } }";
+
+  private final OkHttpClient httpClient;
+  private final ObjectMapper mapper;
+  private final GitHubClientPool clients;
+  private final VersionmonitorConfiguration props;
+
+  /**
+   * Creates a GraphQL client sharing the application HTTP client.
+   */
+  @Autowired
+  public GitHubGraphQlClient(OkHttpClient httpClient, ObjectMapper mapper,
+      GitHubClientPool clients, VersionmonitorConfiguration props) {
+    this.httpClient = httpClient;
+    this.mapper = mapper;
+    this.clients = clients;
+    this.props = props;
+  }
+
+  /**
+   * Fetches the latest tags of the given repositories.
+   *
+   * @param identifiers Repository identifiers in the <code>owner/name</code> form.
+   * @return The tags by repository identifier. Repositories that could not be found are left out.
+   * @throws IOException Thrown if GitHub could not be reached, or answered with errors and no
+   *                     data.
+   */
+  public Map<String, RepositoryTags> latestTags(List<String> identifiers) throws IOException {
+    if (identifiers.isEmpty()) {
+      return Collections.emptyMap();
+    }
+
+    return parse(identifiers, execute(query(identifiers)));
+  }
+
+  /**
+   * Lists every tag of a repository, {@value #TAGS_PER_REPOSITORY} tags per query.
+   *
+   * @param identifier Repository identifier in the <code>owner/name</code> form.
+   * @return The tags, newest first.
+   * @throws FileNotFoundException Thrown if the repository does not exist.
+   * @throws IOException Thrown if GitHub could not be reached or answered with an error.
+   */
+  public List<RemoteTag> allTags(String identifier) throws IOException {
+    final String[] ownerRepo = identifier.split("/", 2);
+    final List<RemoteTag> tags = new ArrayList<>();
+
+    String after = null;
+
+    do {
+      final ObjectNode variables = mapper.createObjectNode();
+      variables.put("owner", ownerRepo[0]);
+      variables.put("name", ownerRepo.length > 1 ? ownerRepo[1] : "");
+      variables.put("after", after);
+
+      final ObjectNode query = mapper.createObjectNode();
+      query.put("query", ALL_TAGS_QUERY);
+      query.set("variables", variables);
+
+      final JsonNode refs = execute(query).path("data").path("repository").path("refs");
+
+      if (refs.isMissingNode() || refs.isNull()) {
+        throw new FileNotFoundException("GitHub repository does not exist: " + identifier);
+      }
+
+      refs.path("nodes").forEach(node -> tags.add(toRemoteTag(node)));
+
+      after = refs.path("pageInfo").path("hasNextPage").asBoolean()
+          ? refs.path("pageInfo").path("endCursor").asText(null)
+          : null;
+    } while (after != null);
+
+    return tags;
+  }
+
+  /**
+   * Looks up the authored dates of commits in a repository, resolving up to
+   * {@value #COMMITS_PER_QUERY} commits per query.
+   *
+   * @param identifier Repository identifier in the <code>owner/name</code> form.
+   * @param shas The SHAs of the commits.
+   * @return The authored dates by commit SHA. Commits that could not be found are left out.
+   * @throws IOException Thrown if GitHub could not be reached or answered with an error.
+   */
+  public Map<String, Date> commitDates(String identifier, Collection<String> shas)
+      throws IOException {
+    final List<String> distinct = new ArrayList<>(new LinkedHashSet<>(shas));
+    final Map<String, Date> dates = new HashMap<>();
+
+    for (int from = 0; from < distinct.size(); from += COMMITS_PER_QUERY) {
+      final List<String> batch =
+          distinct.subList(from, Math.min(from + COMMITS_PER_QUERY, distinct.size()));
+      final JsonNode repository = execute(commitQuery(identifier, batch))
+          .path("data").path("repository");
+
+      for (int i = 0; i < batch.size(); i++) {
+        final String date = repository.path("c" + i).path("authoredDate").asText(null);
+
+        if (date != null) {
+          dates.put(batch.get(i), Date.from(Instant.parse(date)));
+        }
+      }
+    }
+
+    return dates;
+  }
+
+  private JsonNode execute(ObjectNode query) throws IOException {
+    final Request request = new Request.Builder()
+        .url(props.getGithub().getGraphqlUrl())
+        .header("Authorization", "bearer " + clients.getGraphQlToken())
+        .post(RequestBody.create(JSON, mapper.writeValueAsBytes(query)))
+        .build();
+
+    try (Response response = httpClient.newCall(request).execute()) {
+      final ResponseBody body = response.body();
+
+      if (!response.isSuccessful() || body == null) {
+        throw new IOException("Unexpected response from GitHub GraphQL API: " + response.code());
+      }
+
+      final JsonNode result = mapper.readTree(body.byteStream());
+      final JsonNode errors = result.path("errors");
+      final JsonNode data = result.path("data");
+
+      if (errors.size() > 0 && (data.isMissingNode() || data.isNull())) {
+        throw new IOException("GitHub GraphQL API answered with errors only: " + errors);
+      }
+
+      if (errors.size() > 0) {
+        log.warn("GitHub GraphQL API reported {} errors: {}", errors.size(), errors);
+      }
+
+      return result;
+    }
+  }
+
+  /**
+   * Builds a query with one aliased repository field per identifier, passing owners and names as
+   * variables.
+   */
+  private ObjectNode query(List<String> identifiers) {
+    final StringBuilder declarations = new StringBuilder();
+    final StringBuilder fields = new StringBuilder();
+    final ObjectNode variables = mapper.createObjectNode();
+
+    for (int i = 0; i < identifiers.size(); i++) {
+      final String[] ownerRepo = identifiers.get(i).split("/", 2);
+
+      declarations.append(i == 0 ? "" : ", ")
+        .append("$o").append(i).append(": String!, $n").append(i).append(": String!");
+      fields.append(" r").append(i)
+        .append(": repository(owner: $o").append(i).append(", name: $n").append(i).append(") ")
+        .append(REPOSITORY_FIELDS);
+
+      variables.put("o" + i, ownerRepo[0]);
+      variables.put("n" + i, ownerRepo.length > 1 ? ownerRepo[1] : "");
+    }
+
+    final ObjectNode query = mapper.createObjectNode();
+    query.put("query", "query(" + declarations + ") {" + fields + " }");
+    query.set("variables", variables);
+
+    return query;
+  }
+
+  /**
+   * Builds a query with one aliased commit lookup per SHA within a single repository.
+   */
+  private ObjectNode commitQuery(String identifier, List<String> shas) {
+    final String[] ownerRepo = identifier.split("/", 2);
+    final StringBuilder declarations = new StringBuilder("$owner: String!, $name: String!");
+    final StringBuilder fields = new StringBuilder();
+    final ObjectNode variables = mapper.createObjectNode();
+
+    variables.put("owner", ownerRepo[0]);
+    variables.put("name", ownerRepo.length > 1 ? ownerRepo[1] : "");
+
+    for (int i = 0; i < shas.size(); i++) {
+      declarations.append(", $s").append(i).append(": GitObjectID!");
+      fields.append(" c").append(i)
+        .append(": object(oid: $s").append(i).append(") { ... on Commit { authoredDate } }");
+
+      variables.put("s" + i, shas.get(i));
+    }
+
+    final ObjectNode query = mapper.createObjectNode();
+    query.put("query", "query(" + declarations + ") { repository(owner: $owner, name: $name) {"
+        + fields + " } }");
+    query.set("variables", variables);
+
+    return query;
+  }
+
+  private Map<String, RepositoryTags> parse(List<String> identifiers, JsonNode response) {
+    final JsonNode data = response.path("data");
+    final Map<String, RepositoryTags> result = new HashMap<>();
+
+    for (int i = 0; i < identifiers.size(); i++) {
+      final JsonNode refs = data.path("r" + i).path("refs");
+
+      if (refs.isMissingNode() || refs.isNull()) {
+        continue;
+      }
+
+      final List<RemoteTag> tags = new ArrayList<>();
+
+      refs.path("nodes").forEach(node -> tags.add(toRemoteTag(node)));
+
+      result.put(identifiers.get(i), new RepositoryTags(refs.path("totalCount").asInt(), tags));
+    }
+
+    return result;
+  }
+
+  /**
+   * Reads a tag, following annotated tags to the commit they point to.
+   */
+  private static RemoteTag toRemoteTag(JsonNode node) {
+    final JsonNode target = node.path("target");
+    final String date = target.has("authoredDate")
+        ? target.path("authoredDate").asText()
+        : target.path("target").path("authoredDate").asText(null);
+
+    return new RemoteTag(node.path("name").asText(),
+        date != null ? Date.from(Instant.parse(date)) : new Date(0));
+  }
+
+  /**
+   * The latest tags of a repository.
+   */
+  public static class RepositoryTags {
+    private final int totalCount;
+    private final List<RemoteTag> tags;
+
+    RepositoryTags(int totalCount, List<RemoteTag> tags) {
+      this.totalCount = totalCount;
+      this.tags = tags;
+    }
+
+    /**
+     * The number of tags in the repository, which may be more than were fetched.
+     */
+    public int getTotalCount() {
+      return totalCount;
+    }
+
+    /**
+     * The latest tags, newest first.
+     */
+    public List<RemoteTag> getTags() {
+      return tags;
+    }
+
+    /**
+     * Whether all tags of the repository were fetched.
+     */
+    public boolean isComplete() {
+      return tags.size() >= totalCount;
+    }
+  }
+
+  /**
+   * A tag and the authored date of the commit it points to.
+   */
+  public static class RemoteTag {
+    private final String name;
+    private final Date date;
+
+    RemoteTag(String name, Date date) {
+      this.name = name;
+      this.date = date;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public Date getDate() {
+      return date;
+    }
+  }
+}
@@ -2,30 +2,38 @@ package net.evenh.versionmonitor.application.hosts.github;
 
 import static java.util.regex.Pattern.CASE_INSENSITIVE;
 
+import com.google.common.collect.Lists;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import net.evenh.versionmonitor.application.hosts.github.GitHubGraphQlClient.RemoteTag;
+import net.evenh.versionmonitor.application.hosts.github.GitHubGraphQlClient.RepositoryTags;
+import net.evenh.versionmonitor.application.hosts.github.GitHubRateLimitBudget.RateLimit;
+import net.evenh.versionmonitor.domain.hosts.CheckDeferredException;
 import net.evenh.versionmonitor.domain.hosts.HostRegistry;
 import net.evenh.versionmonitor.domain.hosts.HostService;
 import net.evenh.versionmonitor.domain.projects.Project;
-import net.evenh.versionmonitor.domain.projects.ProjectService;
+import net.evenh.versionmonitor.domain.releases.KnownVersionIndex;
 import net.evenh.versionmonitor.domain.releases.Release;
-import net.evenh.versionmonitor.domain.releases.ReleaseRepository;
+import net.evenh.versionmonitor.domain.releases.ReleaseIngestionService;
 import net.evenh.versionmonitor.infrastructure.config.VersionmonitorConfiguration;
-import okhttp3.OkHttpClient;
-import okhttp3.OkUrlFactory;
-import org.kohsuke.github.GHRateLimit;
+import net.evenh.versionmonitor.infrastructure.config.VersionmonitorConfiguration.Github.FetchMode;
 import org.kohsuke.github.GHRepository;
 import org.kohsuke.github.GHTag;
-import org.kohsuke.github.GitHub;
-import org.kohsuke.github.GitHubBuilder;
-import org.kohsuke.github.extras.OkHttp3Connector;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.InitializingBean;
@@ -45,63 +53,52 @@ public class GitHubHostService extends AbstractHealthIndicator
     implements HostService, InitializingBean {
 
   private static final Logger log = LoggerFactory.getLogger(GitHubHostService.class);
+  private static final int TAGS_PER_PAGE = 100;
   private final Pattern repoId = Pattern.compile("^[a-z0-9-_]+/[a-z0-9-_]+$", CASE_INSENSITIVE);
 
   @Autowired
   private HostRegistry registry;
 
   @Autowired
-  private ProjectService projectService;
+  private ReleaseIngestionService ingestion;
 
   @Autowired
-  private ReleaseRepository releases;
+  private GitHubTagClient tagClient;
+
+  @Autowired
+  private GitHubGraphQlClient graphQlClient;
 
   @Autowired
   private VersionmonitorConfiguration props;
 
   @Autowired
-  private OkHttpClient httpClient;
+  private GitHubClientPool clients;
 
-  private GitHub gitHub;
+  @Autowired
+  private GitHubRateLimitBudget budget;
+
+  @Autowired
+  private GitHubProjectRepository projects;
 
   /**
-   * Performs the initial connection to GitHub.
-   *
-   * @throws IllegalArgumentException Thrown if OAuth2 Token is not configured or improperly
-   *                                  configured.
-   * @throws IOException              Thrown if there is problems communicating with GitHub
-   *                                  unrelated to the OAuth2 token.
+   * Latest tags by project id, fetched ahead of the checks of the current batch.
    */
-  @Override
-  public void afterPropertiesSet() throws IllegalArgumentException, IOException {
-    final String authToken = props.getGithub().getOauthToken();
-
-    // Validate token
-    if (authToken == null || authToken.isEmpty()) {
-      throw new IllegalArgumentException("Missing GitHub OAuth2 token");
-    }
+  private volatile Map<Long, RepositoryTags> prefetched = new ConcurrentHashMap<>();
 
-    // Setup GitHub connection and validate token
-    try {
-      gitHub = GitHubBuilder
-        .fromEnvironment()
-        .withOAuthToken(authToken)
-        .withConnector(new OkHttp3Connector(new OkUrlFactory(httpClient)))
-        .build();
-    } catch (IOException e) {
-      log.warn("Caught exception while establishing a connection to GitHub", e);
-      throw e;
-    }
-
-    // Register GitHubHostService with the host registry
+  /**
+   * Registers the GitHub service with the host registry, once the client pool is connected.
+   */
+  @Override
+  public void afterPropertiesSet() {
     registry.register(this);
 
-    log.info("GitHub service up and running. Logged in as: {}", gitHub.getMyself().getLogin());
+    log.info("GitHub service up and running with {} tokens", clients.size());
   }
 
   @Override
   public Optional<GitHubProject> getProject(String identifier) {
     try {
+      final long requestsBefore = budget.requestsMade();
       Optional<GHRepository> repoMaybe = getRepository(identifier);
 
       if (repoMaybe.isPresent()) {
@@ -112,6 +109,14 @@ public class GitHubHostService extends AbstractHealthIndicator
         project.setName(repo.getName());
         project.setDescription(repo.getDescription());
         project.setReleases(populateGitHubReleases(repo, identifier));
+        newest(project.getReleases()).ifPresent(release -> {
+          project.setTagCursor(release.getVersion());
+          project.setTagCursorDate(release.getReleasedAtDate());
+        });
+        project.setReconciledAt(new Date());
+
+        log.info("Imported {} tags of {} using {} API requests", project.getReleases().size(),
+            identifier, budget.requestsMade() - requestsBefore);
 
         return Optional.of(project);
       }
@@ -148,46 +153,52 @@ public class GitHubHostService extends AbstractHealthIndicator
 
     final String prefix = this.getClass().getSimpleName() + "[" + project.getIdentifier() + "]: ";
 
-    List<Release> newReleases = new ArrayList<>();
+    // Tags are listed with the token the project is pinned to, so that is the one to check
+    final Optional<RateLimit> rateLimit = budget.getRateLimit(clients.getToken(project.getId()));
 
-    if (hasReachedRateLimit()) {
-      log.info(prefix + "Reached GitHub rate limit. Returning empty list of new releases.");
-      return newReleases;
+    if (hasReachedRateLimit(rateLimit)) {
+      throw new CheckDeferredException(prefix + "Reached GitHub rate limit",
+          rateLimit.get().getResetDate());
     }
 
-    List<String> existingReleases = project.getReleases().stream()
-        .map(Release::getVersion)
-        .collect(Collectors.toList());
+    final RepositoryTags prefetchedTags = prefetched.remove(project.getId());
 
-    try {
-      Optional<GHRepository> repo = getRepository(project.getIdentifier());
-
-      if (!repo.isPresent()) {
-        log.warn(prefix + "Could not read fetch repo from database. Returning!");
-        return newReleases;
-      } else {
-        repo.ifPresent(ghRepo -> {
-          try {
-            ghRepo.listTags().forEach(tag -> {
-              if (!existingReleases.contains(tag.getName())) {
-                final Release newRelease = mapToRelease(tag, project.getIdentifier());
-                releases.saveAndFlush(newRelease);
-                newReleases.add(newRelease);
-              }
-            });
-
-            newReleases.forEach(project::addRelease);
-            projectService.persist(project);
-          } catch (IOException e) {
-            log.warn(prefix + "Got exception while fetching tags", e);
-          }
-        });
+    if (prefetchedTags != null) {
+      Optional<List<Release>> newReleases =
+          checkPrefetched((GitHubProject) project, prefetchedTags);
+
+      if (newReleases.isPresent()) {
+        log.debug(prefix + "Found {} new releases", newReleases.get().size());
+        return newReleases.get();
       }
 
-    } catch (FileNotFoundException e) {
-      log.warn(prefix + "Project does not exist. Removed or bad access rights?");
+      log.debug(prefix + "Latest tags may be incomplete, listing changed tags");
     }
 
+    final KnownVersionIndex knownVersions = ingestion.knownVersions(project);
+    final GitHubTagPages pages;
+
+    // Other failures, such as a removed repository, are left to the engine to back off
+    try {
+      pages = tagClient.listChangedTags(project);
+    } catch (GitHubRateLimitExceededException e) {
+      throw new CheckDeferredException(prefix + "Out of GitHub rate limit budget",
+          e.getResetDate());
+    }
+
+    if (!pages.isChanged()) {
+      log.debug(prefix + "Tags not modified since the previous check");
+      return Collections.emptyList();
+    }
+
+    final List<GitHubTagRepresentation> newTags = pages.getTags().stream()
+        .filter(tag -> !knownVersions.contains(tag.getName()))
+        .collect(Collectors.toList());
+
+    final List<Release> newReleases = ingestion.ingest(project, mapToReleases(newTags, project));
+    tagClient.commit(pages);
+    advanceCursor((GitHubProject) project, newReleases);
+
     log.debug(prefix + "Found {} new releases", newReleases.size());
     return newReleases;
   }
@@ -197,50 +208,242 @@ public class GitHubHostService extends AbstractHealthIndicator
     return "github";
   }
 
+  /**
+   * Projects that recently had tags pushed through a webhook only need the occasional poll, to
+   * catch events that were missed.
+   */
+  @Override
+  public Duration minimumCheckInterval(Project project) {
+    final VersionmonitorConfiguration.Github.Webhook webhook = props.getGithub().getWebhook();
+
+    if (project instanceof GitHubProject) {
+      final Date pushedAt = ((GitHubProject) project).getPushedAt();
+      final Instant activeSince = Instant.now().minus(Duration.ofDays(webhook.getActiveDays()));
+
+      if (pushedAt != null && pushedAt.toInstant().isAfter(activeSince)) {
+        return Duration.ofMinutes(webhook.getPollIntervalMinutes());
+      }
+    }
+
+    return Duration.ZERO;
+  }
+
+  /**
+   * Stores a tag pushed through a webhook as a new release, unless it is already known.
+   *
+   * @return The new release, or empty if the tag is already known.
+   */
+  public Optional<Release> ingestPushedTag(GitHubProject project, String tagName, Date date) {
+    if (ingestion.knownVersions(project).contains(tagName)) {
+      return Optional.empty();
+    }
+
+    final List<Release> newReleases = ingestion.ingest(project,
+        Collections.singletonList(mapToRelease(tagName, date, project.getIdentifier())));
+    advanceCursor(project, newReleases);
+
+    return newReleases.stream().findFirst();
+  }
+
+  /**
+   * Fetches the latest tags of the projects through batched GraphQL queries, when enabled.
+   */
+  @Override
+  public void prefetch(Collection<Project> projects) {
+    if (props.getGithub().getFetchMode() != FetchMode.GRAPHQL) {
+      return;
+    }
+
+    final Map<String, Long> ids = projects.stream()
+        .filter(this::isSatisfiedBy)
+        .collect(Collectors.toMap(Project::getIdentifier, Project::getId, (a, b) -> a));
+    final Map<Long, RepositoryTags> fetched = new ConcurrentHashMap<>();
+
+    for (List<String> batch : Lists.partition(new ArrayList<>(ids.keySet()),
+        props.getGithub().getGraphqlBatchSize())) {
+      try {
+        graphQlClient.latestTags(batch)
+            .forEach((identifier, tags) -> fetched.put(ids.get(identifier), tags));
+      } catch (IOException e) {
+        log.warn("Could not fetch tags of {} repositories through GraphQL", batch.size(), e);
+      }
+    }
+
+    log.debug("Prefetched tags of {} of {} repositories", fetched.size(), ids.size());
+
+    prefetched = fetched;
+  }
 
   /**
-   * Convenience method to convert a {@link GHTag} to a {@link Release}.
+   * Finds new releases among the latest tags of a project.
+   *
+   * <p>The latest tags are ordered by commit date, so a new tag pointing to an older commit may not
+   * be among them. They are only trusted if every tag of the repository was fetched, or if the
+   * known and new tags add up to the number of tags in the repository. A tag deleted and another
+   * added since the previous check also add up, and are left to the reconciliation.</p>
+   *
+   * @return The new releases, or empty if the tags that were not fetched may hold new ones.
    */
-  private Release mapToRelease(GHTag tag, String identifier) {
-    Date creationDate;
+  private Optional<List<Release>> checkPrefetched(GitHubProject project, RepositoryTags tags) {
+    final KnownVersionIndex knownVersions = ingestion.knownVersions(project);
+    final List<Release> candidates = tags.getTags().stream()
+        .filter(tag -> !knownVersions.contains(tag.getName()))
+        .map(tag -> mapToRelease(tag.getName(), tag.getDate(), project.getIdentifier()))
+        .collect(Collectors.toList());
 
-    try {
-      creationDate = tag.getCommit().getAuthoredDate();
-    } catch (IOException e) {
-      creationDate = new Date(0);
+    if (!tags.isComplete()
+        && knownVersions.size() + candidates.size() != tags.getTotalCount()) {
+      return Optional.empty();
     }
 
+    final List<Release> newReleases = ingestion.ingest(project, candidates);
+    advanceCursor(project, newReleases);
+
+    return Optional.of(newReleases);
+  }
+
+
+  /**
+   * Convenience method to create a {@link Release} from a tag, dated to the epoch if the date of
+   * the tag is unknown.
+   */
+  private Release mapToRelease(String tagName, Date creationDate, String identifier) {
     return Release.builder()
-      .withVersion(tag.getName())
-      .withUrl("https://github.com/" + identifier + "/releases/tag/" + tag.getName())
-      .withCreatedAt(creationDate)
+      .withVersion(tagName)
+      .withUrl("https://github.com/" + identifier + "/releases/tag/" + tagName)
+      .withCreatedAt(creationDate != null ? creationDate : new Date(0))
       .build();
   }
 
   /**
-   * Utility method to check if the rate limit is reached and log a bunch in the process.
+   * Compares all tags of a project with its known releases.
+   *
+   * <p>Missing tags are stored as new releases, releases whose tag was deleted are removed, and
+   * releases whose tag was re-pushed to another commit are re-dated. The tag cursor is moved to
+   * the newest tag.</p>
+   *
+   * @return The releases of tags that were missing.
+   * @throws IOException Thrown if the tags could not be listed.
+   */
+  public List<Release> reconcile(GitHubProject project) throws IOException {
+    final List<RemoteTag> tags = graphQlClient.allTags(project.getIdentifier());
+    final Map<String, Release> known = ingestion.findByProject(project).stream()
+        .collect(Collectors.toMap(Release::getVersion, Function.identity(), (a, b) -> a));
+
+    final List<Release> missing = new ArrayList<>();
+    final List<Release> redated = new ArrayList<>();
+
+    for (RemoteTag tag : tags) {
+      final Release release = known.remove(tag.getName());
+
+      if (release == null) {
+        missing.add(mapToRelease(tag.getName(), tag.getDate(), project.getIdentifier()));
+      } else if (tag.getDate().getTime() > 0
+          && tag.getDate().getTime() != release.getReleasedAtDate().getTime()) {
+        release.setReleasedAt(tag.getDate());
+        redated.add(release);
+      }
+    }
+
+    final Collection<Release> removed = known.values();
+
+    ingestion.reconcile(removed, redated);
+
+    final List<Release> added = ingestion.ingest(project, missing);
+
+    tags.stream()
+        .filter(tag -> tag.getDate().getTime() > 0)
+        .max(Comparator.comparing(RemoteTag::getDate))
+        .ifPresent(tag -> projects.updateTagCursor(project.getId(), tag.getName(), tag.getDate()));
+
+    log.info("Reconciled {} tags of {}: {} missing, {} removed, {} re-dated", tags.size(),
+        project.getIdentifier(), added.size(), removed.size(), redated.size());
+
+    return added;
+  }
+
+  /**
+   * Moves the tag cursor of a project to the newest of its new releases, if that is newer.
    */
-  private boolean hasReachedRateLimit() {
-    // Check rate limit
-    Optional<GHRateLimit> rateLimit = getRateLimit();
+  private void advanceCursor(GitHubProject project, List<Release> newReleases) {
+    newest(newReleases)
+        .filter(release -> project.getTagCursorDate() == null
+            || release.getReleasedAtDate().after(project.getTagCursorDate()))
+        .ifPresent(release -> {
+          projects.updateTagCursor(project.getId(), release.getVersion(),
+              release.getReleasedAtDate());
+          project.setTagCursor(release.getVersion());
+          project.setTagCursorDate(release.getReleasedAtDate());
+        });
+  }
 
+  /**
+   * Finds the newest release with a known date.
+   */
+  private static Optional<Release> newest(List<Release> releases) {
+    return releases.stream()
+        .filter(release -> release.getReleasedAtDate().getTime() > 0)
+        .max(Comparator.comparing(Release::getReleasedAtDate));
+  }
+
+  /**
+   * Converts newly found tags to releases, looking up the commit dates of all tags in bulk.
+   */
+  private List<Release> mapToReleases(List<GitHubTagRepresentation> tags, Project project) {
+    if (tags.isEmpty()) {
+      return Collections.emptyList();
+    }
+
+    final Map<String, Date> dates = commitDates(project.getIdentifier(), tags.stream()
+        .filter(tag -> tag.getCommit() != null)
+        .map(tag -> tag.getCommit().getSha())
+        .collect(Collectors.toList()));
+
+    return tags.stream()
+        .map(tag -> mapToRelease(tag.getName(),
+            tag.getCommit() != null ? dates.get(tag.getCommit().getSha()) : null,
+            project.getIdentifier()))
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Looks up commit dates through GraphQL, a hundred commits per request.
+   *
+   * @return The authored dates by commit SHA, which is empty if the lookup failed.
+   */
+  private Map<String, Date> commitDates(String identifier, Collection<String> shas) {
+    if (shas.isEmpty()) {
+      return Collections.emptyMap();
+    }
+
+    try {
+      return graphQlClient.commitDates(identifier, shas);
+    } catch (IOException e) {
+      log.warn("Could not look up commit dates of {}", identifier, e);
+    }
+
+    return Collections.emptyMap();
+  }
+
+  /**
+   * Utility method to check if the rate limit is reached and log a bunch in the process.
+   *
+   * <p>The rate limit is tracked from the headers of earlier GitHub responses, so this does not
+   * make a call itself.</p>
+   */
+  private boolean hasReachedRateLimit(Optional<RateLimit> rateLimit) {
     if (rateLimit.isPresent()) {
-      GHRateLimit rl = rateLimit.get();
+      RateLimit rl = rateLimit.get();
 
-      log.debug("{} of {} available calls performed", rl.remaining, rl.limit);
+      log.debug("{} of {} calls remaining", rl.getRemaining(), rl.getLimit());
       log.debug("Rate limit will be reset on {}", rl.getResetDate());
 
-      int callsLeft = rl.limit - (rl.remaining - props.getGithub().getRatelimitBuffer());
-
-      if (callsLeft <= 0) {
+      if (rl.getCallsLeft() <= 0) {
         log.info("No GitHub calls remaining. No new release checks will be "
-            + "attempted before {} has occurred", rl.remaining, rl.getResetDate());
+            + "attempted before {}", rl.getResetDate());
 
         return true;
       }
-    } else {
-      log.warn("Could not get rate limit information! Assuming rate limit has been reached.");
-      return true;
     }
 
     return false;
@@ -257,8 +460,15 @@ public class GitHubHostService extends AbstractHealthIndicator
     List<Release> releases = new ArrayList<>();
 
     try {
-      releases = repository.listTags().asList().stream()
-        .map(tag -> mapToRelease(tag, identifier))
+      final List<GHTag> tags = repository.listTags().withPageSize(TAGS_PER_PAGE).toList();
+      final List<String> shas = tags.stream()
+          .map(tag -> tag.getCommit().getSHA1())
+          .distinct()
+          .collect(Collectors.toList());
+      final Map<String, Date> dates = commitDates(identifier, shas);
+
+      releases = tags.stream()
+        .map(tag -> mapToRelease(tag.getName(), dates.get(tag.getCommit().getSHA1()), identifier))
         .collect(Collectors.toList());
     } catch (IOException e) {
       log.warn("Encountered IOException while populating GitHub releases", e);
@@ -268,25 +478,31 @@ public class GitHubHostService extends AbstractHealthIndicator
   }
 
   /**
-   * Gives a health indication based on the remaining API calls available.
+   * Gives a health indication based on the remaining API calls available, which is down only when
+   * every token has reached its rate limit.
    */
   @Override
   protected void doHealthCheck(Health.Builder builder) throws Exception {
-    getRateLimit().ifPresent(rateLimit -> {
-      builder.withDetail("buffer", props.getGithub().getRatelimitBuffer());
-      builder.withDetail("limit", rateLimit.limit);
-      builder.withDetail("remaining", rateLimit.remaining);
-      builder.withDetail("resetDate", rateLimit.getResetDate());
-    });
-
-    if (hasReachedRateLimit()) {
+    final Optional<RateLimit> rateLimit = clients.getRateLimit();
+
+    if (!rateLimit.isPresent()) {
+      builder.unknown();
+      return;
+    }
+
+    builder.withDetail("buffer", props.getGithub().getRatelimitBuffer());
+    builder.withDetail("limit", rateLimit.get().getLimit());
+    builder.withDetail("remaining", rateLimit.get().getRemaining());
+    builder.withDetail("resetDate", rateLimit.get().getResetDate());
+    builder.withDetail("tokens", clients.getRateLimits());
+
+    if (hasReachedRateLimit(rateLimit)) {
       builder.down();
     } else {
       builder.up();
     }
   }
 
-
   /**
    * Constructs a <code>GHRepository</code> with populated data for a given identifier.
    *
@@ -308,7 +524,7 @@ public class GitHubHostService extends AbstractHealthIndicator
     }
 
     try {
-      return Optional.ofNullable(gitHub.getRepository(ownerRepo));
+      return Optional.ofNullable(clients.getClient().getRepository(ownerRepo));
     } catch (FileNotFoundException e) {
       log.info("GitHub repository does not exist: {}", ownerRepo);
       throw e;
@@ -318,19 +534,4 @@ public class GitHubHostService extends AbstractHealthIndicator
 
     return Optional.empty();
   }
-
-  /**
-   * Gets information about the remaining rate limit.
-   *
-   * @return A optional <code>GHRateLimit</code> object.
-   */
-  private Optional<GHRateLimit> getRateLimit() {
-    try {
-      return Optional.ofNullable(gitHub.getRateLimit());
-    } catch (IOException e) {
-      log.warn("Got exception while requesting rate limit", e);
-    }
-
-    return Optional.empty();
-  }
 }
@@ -1,5 +1,7 @@
 package net.evenh.versionmonitor.application.hosts.github;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import java.util.Date;
 import javax.persistence.Entity;
 import javax.persistence.Table;
 import net.evenh.versionmonitor.domain.projects.Project;
@@ -10,8 +12,64 @@ import net.evenh.versionmonitor.domain.projects.Project;
 @Entity
 @Table(name = "project_github")
 public class GitHubProject extends Project {
+  /**
+   * The newest known tag, where incremental tag listings may stop.
+   */
+  @JsonIgnore
+  private String tagCursor;
+
+  /**
+   * The commit date of the newest known tag.
+   */
+  @JsonIgnore
+  private Date tagCursorDate;
+
+  /**
+   * When all tags of the project were last compared with the known releases.
+   */
+  @JsonIgnore
+  private Date reconciledAt;
+
+  /**
+   * When a tag of the project was last pushed through a webhook.
+   */
+  @JsonIgnore
+  private Date pushedAt;
+
   @Override
   public String getProjectUrl() {
     return "https://github.com/" + getIdentifier();
   }
+
+  public String getTagCursor() {
+    return tagCursor;
+  }
+
+  public void setTagCursor(String tagCursor) {
+    this.tagCursor = tagCursor;
+  }
+
+  public Date getTagCursorDate() {
+    return tagCursorDate;
+  }
+
+  public void setTagCursorDate(Date tagCursorDate) {
+    this.tagCursorDate = tagCursorDate;
+  }
+
+  public Date getReconciledAt() {
+    return reconciledAt;
+  }
+
+  public void setReconciledAt(Date reconciledAt) {
+    this.reconciledAt = reconciledAt;
+  }
+
+  public Date getPushedAt() {
+    return pushedAt;
+  }
+
+  public void setPushedAt(Date pushedAt) {
+    this.pushedAt = pushedAt;
+  }
 }
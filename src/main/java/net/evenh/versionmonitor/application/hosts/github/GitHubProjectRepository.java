@@ -0,0 +1,77 @@
+package net.evenh.versionmonitor.application.hosts.github;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * A repository for the GitHub specific state of projects.
+ */
+@Repository
+public interface GitHubProjectRepository extends JpaRepository<GitHubProject, Long> {
+  /**
+   * Finds a project by its repository identifier, which GitHub treats case insensitively.
+   */
+  Optional<GitHubProject> findFirstByIdentifierIgnoreCase(String identifier);
+
+  /**
+   * Finds projects whose tags have not been reconciled since the given time, the least recently
+   * reconciled first.
+   */
+  @Query("select p from GitHubProject p where p.reconciledAt is null or p.reconciledAt < :before "
+      + "order by p.reconciledAt asc nulls first, p.id")
+  List<GitHubProject> findReconciliationDue(@Param(value = "before") Date before,
+      Pageable pageable);
+
+  /**
+   * Moves the tag cursor of a project, without loading or merging the project.
+   */
+  @Transactional
+  @Modifying
+  @Query(value = "update {h-schema}project_github set tag_cursor = :tag, "
+      + "tag_cursor_date = :date where id = :id", nativeQuery = true)
+  int updateTagCursor(@Param(value = "id") Long id, @Param(value = "tag") String tag,
+      @Param(value = "date") Date date);
+
+  /**
+   * Marks a project as reconciled, unless it has been reconciled since the given time.
+   *
+   * @return 1 if the project was claimed for reconciliation, or 0 if another node got there first.
+   */
+  @Transactional
+  @Modifying
+  @Query(value = "update {h-schema}project_github set reconciled_at = :now where id = :id "
+      + "and (reconciled_at is null or reconciled_at < :before)", nativeQuery = true)
+  int claimReconciliation(@Param(value = "id") Long id, @Param(value = "now") Date now,
+      @Param(value = "before") Date before);
+
+  /**
+   * Hands back a claim on the reconciliation of a project that failed, so it is due again.
+   *
+   * @param claimedAt The time the project was claimed at, which is left alone if it has changed.
+   * @param previous The time to record as the last reconciliation, which may be null. Projects
+   *                 are reconciled in the order of this time.
+   */
+  @Transactional
+  @Modifying
+  @Query(value = "update {h-schema}project_github set reconciled_at = :previous where id = :id "
+      + "and reconciled_at = :claimedAt", nativeQuery = true)
+  int releaseReconciliation(@Param(value = "id") Long id,
+      @Param(value = "claimedAt") Date claimedAt, @Param(value = "previous") Date previous);
+
+  /**
+   * Records that a tag of a project was pushed through a webhook.
+   */
+  @Transactional
+  @Modifying
+  @Query(value = "update {h-schema}project_github set pushed_at = :pushedAt where id = :id",
+      nativeQuery = true)
+  int updatePushedAt(@Param(value = "id") Long id, @Param(value = "pushedAt") Date pushedAt);
+}
@@ -0,0 +1,306 @@
+package net.evenh.versionmonitor.application.hosts.github;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.HttpURLConnection;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import net.evenh.versionmonitor.infrastructure.config.VersionmonitorConfiguration;
+import net.evenh.versionmonitor.infrastructure.config.http.NetworkInterceptor;
+import okhttp3.HttpUrl;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Shared budget of GitHub API calls, paced evenly over the rate limit window.
+ *
+ * <p>The budget is a network interceptor on the application HTTP client, so responses served
+ * from the HTTP cache neither take from the budget nor overwrite the rate limit with the stale
+ * headers they were stored with. It reads the <code>X-RateLimit-*</code> headers of every GitHub
+ * response, so the remaining calls are known without asking the rate limit endpoint, and paces
+ * every GitHub request with a token bucket. The bucket is refilled at the rate that spreads the
+ * remaining calls, minus the configured buffer, evenly until the window resets. GitHub does not
+ * count <code>304 Not Modified</code> responses against the rate limit, so their token is given
+ * back.</p>
+ *
+ * <p>Every token has its own limits, and the REST and GraphQL APIs have separate limits, so each
+ * combination of token and API is budgeted separately.</p>
+ *
+ * <p>GitHub requests that reach the network are counted per thread, so code that wants to know how
+ * many calls a piece of work costs reads {@link #requestsMade()} before and after it.</p>
+ */
+@Component
+public class GitHubRateLimitBudget implements NetworkInterceptor {
+  private static final Logger log = LoggerFactory.getLogger(GitHubRateLimitBudget.class);
+
+  static final String CORE = "core";
+  static final String GRAPHQL = "graphql";
+
+  private final VersionmonitorConfiguration props;
+  private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+  private final ThreadLocal<long[]> requests = ThreadLocal.withInitial(() -> new long[1]);
+
+  @Autowired
+  public GitHubRateLimitBudget(VersionmonitorConfiguration props) {
+    this.props = props;
+  }
+
+  @Override
+  public Response intercept(Chain chain) throws IOException {
+    final Request request = chain.request();
+    final Optional<String> resource = resourceOf(request.url());
+
+    if (!resource.isPresent()) {
+      return chain.proceed(request);
+    }
+
+    final String token = tokenOf(request);
+    final Bucket bucket = bucket(token, resource.get());
+
+    bucket.acquire();
+
+    final Response response;
+
+    try {
+      response = chain.proceed(request);
+    } catch (IOException e) {
+      bucket.refund();
+      throw e;
+    }
+
+    requests.get()[0]++;
+
+    if (response.code() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+      bucket.refund();
+    }
+
+    final String limit = response.header("X-RateLimit-Limit");
+    final String remaining = response.header("X-RateLimit-Remaining");
+    final String reset = response.header("X-RateLimit-Reset");
+
+    if (limit != null && remaining != null && reset != null) {
+      try {
+        bucket(token, response.header("X-RateLimit-Resource", resource.get())).observe(
+            Integer.parseInt(limit), Integer.parseInt(remaining),
+            Instant.ofEpochSecond(Long.parseLong(reset)));
+      } catch (NumberFormatException e) {
+        log.debug("Ignoring malformed rate limit headers from {}", request.url(), e);
+      }
+    }
+
+    return response;
+  }
+
+  /**
+   * The number of GitHub requests that reached the network on the current thread so far, whether
+   * they counted against the rate limit or not.
+   */
+  public long requestsMade() {
+    return requests.get()[0];
+  }
+
+  /**
+   * The last known REST API rate limit of a token.
+   *
+   * @return The rate limit, or empty if no GitHub response has been seen for the token yet.
+   */
+  public Optional<RateLimit> getRateLimit(String token) {
+    return getRateLimit(token, CORE);
+  }
+
+  /**
+   * The last known rate limit of a token for either the REST API ({@value #CORE}) or the GraphQL
+   * API ({@value #GRAPHQL}).
+   *
+   * @return The rate limit, or empty if no GitHub response has been seen for the token yet.
+   */
+  Optional<RateLimit> getRateLimit(String token, String resource) {
+    return bucket(token, resource).getRateLimit();
+  }
+
+  private Bucket bucket(String token, String resource) {
+    return buckets.computeIfAbsent(token + "/" + resource,
+        key -> new Bucket(resource, props.getGithub()));
+  }
+
+  /**
+   * Gives the token a request is authorized with, or an empty string for anonymous requests.
+   */
+  private static String tokenOf(Request request) {
+    final String authorization = request.header("Authorization");
+
+    if (authorization == null) {
+      return "";
+    }
+
+    return authorization.substring(authorization.indexOf(' ') + 1);
+  }
+
+  /**
+   * Tells which rate limit a request to GitHub counts against.
+   */
+  private Optional<String> resourceOf(HttpUrl url) {
+    final HttpUrl graphql = HttpUrl.parse(props.getGithub().getGraphqlUrl());
+
+    if (url.equals(graphql)) {
+      return Optional.of(GRAPHQL);
+    }
+
+    final HttpUrl api = HttpUrl.parse(props.getGithub().getApiUrl());
+
+    if (api != null && url.host().equals(api.host()) && url.port() == api.port()
+        && !url.encodedPath().startsWith("/rate_limit")) {
+      return Optional.of(CORE);
+    }
+
+    return Optional.empty();
+  }
+
+  /**
+   * A token bucket for a single rate limit.
+   */
+  private static class Bucket {
+    private final String resource;
+    private final VersionmonitorConfiguration.Github config;
+
+    private RateLimit rateLimit;
+    private double tokens;
+    private long refilledAt = System.nanoTime();
+
+    Bucket(String resource, VersionmonitorConfiguration.Github config) {
+      this.resource = resource;
+      this.config = config;
+      this.tokens = config.getRatelimitBurst();
+    }
+
+    synchronized Optional<RateLimit> getRateLimit() {
+      if (rateLimit != null && rateLimit.getResetDate().toInstant().isBefore(Instant.now())) {
+        // The window has been reset, and no response has told us about the new one yet
+        rateLimit = new RateLimit(rateLimit.getLimit(), rateLimit.getLimit(),
+            rateLimit.getResetDate().toInstant().plus(Duration.ofHours(1)), config);
+      }
+
+      return Optional.ofNullable(rateLimit);
+    }
+
+    synchronized void observe(int limit, int remaining, Instant reset) {
+      rateLimit = new RateLimit(limit, remaining, reset, config);
+    }
+
+    /**
+     * Gives back a token taken for a request that did not count against the rate limit.
+     */
+    synchronized void refund() {
+      tokens = Math.min(config.getRatelimitBurst(), tokens + 1);
+    }
+
+    /**
+     * Takes a token, waiting for one to become available if needed.
+     *
+     * @throws GitHubRateLimitExceededException Thrown if no token becomes available within the
+     *                                           maximum wait.
+     */
+    void acquire() throws IOException {
+      final long waitNanos = reserve();
+
+      if (waitNanos <= 0) {
+        return;
+      }
+
+      log.debug("Pacing GitHub {} call for {} ms", resource,
+          TimeUnit.NANOSECONDS.toMillis(waitNanos));
+
+      try {
+        TimeUnit.NANOSECONDS.sleep(waitNanos);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted while waiting for GitHub rate limit");
+      }
+    }
+
+    /**
+     * Reserves a token, possibly ahead of time.
+     *
+     * @return How long to wait before the reserved token may be used.
+     */
+    private synchronized long reserve() throws GitHubRateLimitExceededException {
+      final Optional<RateLimit> current = getRateLimit();
+
+      if (!current.isPresent()) {
+        return 0;
+      }
+
+      final long now = System.nanoTime();
+      final RateLimit limit = current.get();
+      final Duration untilReset = Duration.between(Instant.now(), limit.getResetDate().toInstant());
+      final double secondsLeft = Math.max(1, untilReset.getSeconds());
+      final double ratePerSecond = Math.max(0, limit.getCallsLeft()) / secondsLeft;
+
+      tokens = Math.min(config.getRatelimitBurst(),
+          tokens + ratePerSecond * (now - refilledAt) / TimeUnit.SECONDS.toNanos(1));
+      refilledAt = now;
+
+      if (tokens >= 1) {
+        tokens -= 1;
+        return 0;
+      }
+
+      final long waitNanos = ratePerSecond > 0
+          ? (long) ((1 - tokens) / ratePerSecond * TimeUnit.SECONDS.toNanos(1))
+          : Long.MAX_VALUE;
+
+      if (waitNanos > TimeUnit.SECONDS.toNanos(config.getRatelimitMaxWaitSeconds())) {
+        throw new GitHubRateLimitExceededException("GitHub " + resource
+            + " rate limit budget exhausted until " + limit.getResetDate(), limit.getResetDate());
+      }
+
+      tokens -= 1;
+      return waitNanos;
+    }
+  }
+
+  /**
+   * A snapshot of a GitHub rate limit.
+   */
+  public static class RateLimit {
+    private final int limit;
+    private final int remaining;
+    private final Instant reset;
+    private final int buffer;
+
+    RateLimit(int limit, int remaining, Instant reset, VersionmonitorConfiguration.Github config) {
+      this.limit = limit;
+      this.remaining = remaining;
+      this.reset = reset;
+      this.buffer = config.getRatelimitBuffer();
+    }
+
+    public int getLimit() {
+      return limit;
+    }
+
+    public int getRemaining() {
+      return remaining;
+    }
+
+    public Date getResetDate() {
+      return Date.from(reset);
+    }
+
+    /**
+     * The calls that may still be made before the reset, keeping the buffer in reserve.
+     */
+    public int getCallsLeft() {
+      return remaining - buffer;
+    }
+  }
+}
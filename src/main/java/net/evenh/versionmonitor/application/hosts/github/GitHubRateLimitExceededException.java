@@ -0,0 +1,23 @@
+package net.evenh.versionmonitor.application.hosts.github;
+
+import java.io.IOException;
+import java.util.Date;
+
+/**
+ * Thrown when a GitHub request is not sent, as the rate limit budget would not allow it in time.
+ */
+public class GitHubRateLimitExceededException extends IOException {
+  private final Date resetDate;
+
+  public GitHubRateLimitExceededException(String message, Date resetDate) {
+    super(message);
+    this.resetDate = resetDate;
+  }
+
+  /**
+   * When the exhausted rate limit is reset.
+   */
+  public Date getResetDate() {
+    return resetDate;
+  }
+}
@@ -0,0 +1,110 @@
+package net.evenh.versionmonitor.application.hosts.github;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import net.evenh.versionmonitor.domain.notifications.NotificationService;
+import net.evenh.versionmonitor.domain.releases.Release;
+import net.evenh.versionmonitor.infrastructure.config.VersionmonitorConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Periodically compares all tags of GitHub projects with their known releases.
+ *
+ * <p>Release checks only list the pages of tags that changed, and never remove releases, so tags
+ * that are deleted or re-pushed to another commit are only noticed here. Every run reconciles a
+ * batch of the least recently reconciled projects. The batch is at least the configured batch
+ * size, and large enough to reconcile every project once per interval when the job runs daily.
+ * Projects are claimed one at a time, so several nodes may run the job without reconciling a
+ * project twice.</p>
+ *
+ * <p>A project that no longer exists keeps its claim, and is tried again after a full interval.
+ * Other failures hand the claim back behind the projects already due, so the project is retried
+ * on the next run without holding up the rest. When the rate limit budget runs out, the claim is
+ * handed back as it was.</p>
+ */
+@Component
+public class GitHubReconciliationJob {
+  private static final Logger log = LoggerFactory.getLogger(GitHubReconciliationJob.class);
+
+  @Autowired
+  private GitHubProjectRepository projects;
+
+  @Autowired
+  private GitHubHostService hostService;
+
+  @Autowired
+  private NotificationService notificationService;
+
+  @Autowired
+  private VersionmonitorConfiguration props;
+
+  /**
+   * Reconciles a batch of projects that have not been reconciled within the configured interval.
+   */
+  @Scheduled(cron = "${versionmonitor.github.reconciliation.cron:0 30 3 * * ?}")
+  public void reconcile() {
+    final VersionmonitorConfiguration.Github.Reconciliation config =
+        props.getGithub().getReconciliation();
+    final Date now = new Date();
+    final Date before = Date.from(now.toInstant().minus(Duration.ofDays(config.getIntervalDays())));
+
+    final List<GitHubProject> due =
+        projects.findReconciliationDue(before, PageRequest.of(0, batchSize(config)));
+    int reconciled = 0;
+
+    for (GitHubProject project : due) {
+      if (projects.claimReconciliation(project.getId(), now, before) == 0) {
+        continue;
+      }
+
+      try {
+        final List<Release> missing = hostService.reconcile(project);
+
+        notificationService.notify(missing);
+        reconciled++;
+      } catch (FileNotFoundException e) {
+        log.warn("Could not reconcile tags of {}. Removed or bad access rights?",
+            project.getIdentifier());
+      } catch (GitHubRateLimitExceededException e) {
+        log.info("Out of GitHub rate limit budget, reconciling the rest on the next run");
+        release(project, now, project.getReconciledAt());
+        break;
+      } catch (IOException | RuntimeException e) {
+        log.warn("Got exception while reconciling tags of {}", project.getIdentifier(), e);
+        release(project, now, before);
+      }
+    }
+
+    log.info("Reconciled tags of {} of {} GitHub projects due", reconciled, due.size());
+  }
+
+  /**
+   * The number of projects to reconcile per run, enough to reconcile every project once per
+   * interval if the job runs daily.
+   */
+  private int batchSize(VersionmonitorConfiguration.Github.Reconciliation config) {
+    final long perDay = (projects.count() + config.getIntervalDays() - 1)
+        / Math.max(1, config.getIntervalDays());
+
+    return (int) Math.max(config.getBatchSize(), Math.min(perDay, Integer.MAX_VALUE));
+  }
+
+  /**
+   * Hands back the claim on a project, making it due again as of the given time.
+   */
+  private void release(GitHubProject project, Date claimedAt, Date dueAt) {
+    try {
+      projects.releaseReconciliation(project.getId(), claimedAt, dueAt);
+    } catch (RuntimeException e) {
+      log.warn("Could not hand back reconciliation of {}", project.getIdentifier(), e);
+    }
+  }
+}
@@ -0,0 +1,232 @@
+package net.evenh.versionmonitor.application.hosts.github;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import net.evenh.versionmonitor.domain.projects.Project;
+import net.evenh.versionmonitor.domain.validators.HttpValidator;
+import net.evenh.versionmonitor.domain.validators.HttpValidatorService;
+import net.evenh.versionmonitor.infrastructure.config.VersionmonitorConfiguration;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Lists the tags of GitHub repositories using conditional requests.
+ *
+ * <p>The <code>ETag</code> and <code>Last-Modified</code> headers of every tags page are persisted
+ * per project, and sent back as <code>If-None-Match</code> and <code>If-Modified-Since</code>. An
+ * unchanged page is answered with <code>304 Not Modified</code>, which GitHub does not count
+ * against the rate limit, and whose tags need not be mapped or diffed again. Every project is
+ * listed with the token it is pinned to, as validators are only honoured for the token they were
+ * issued to.</p>
+ */
+@Component
+public class GitHubTagClient {
+  private static final Logger log = LoggerFactory.getLogger(GitHubTagClient.class);
+  private static final String PAGE_RESOURCE = "github:tags:";
+  private static final String END_RESOURCE = PAGE_RESOURCE + "end";
+  private static final int PAGE_SIZE = 100;
+  private static final TypeReference<List<GitHubTagRepresentation>> TAG_LIST =
+      new TypeReference<List<GitHubTagRepresentation>>() {
+      };
+
+  private final OkHttpClient httpClient;
+  private final ObjectMapper mapper;
+  private final HttpValidatorService validators;
+  private final GitHubClientPool clients;
+  private final VersionmonitorConfiguration props;
+
+  /**
+   * Creates a tag client sharing the application HTTP client.
+   */
+  @Autowired
+  public GitHubTagClient(OkHttpClient httpClient, ObjectMapper mapper,
+      HttpValidatorService validators, GitHubClientPool clients,
+      VersionmonitorConfiguration props) {
+    this.httpClient = httpClient;
+    this.mapper = mapper;
+    this.validators = validators;
+    this.clients = clients;
+    this.props = props;
+  }
+
+  /**
+   * Lists the tags of a project on the pages that changed since the previous listing.
+   *
+   * <p>GitHub lists tags by name rather than by date, so a new tag may land on any page. Every tag
+   * that is added or removed shifts the tags after it, though, which changes every page from the
+   * one it landed on to the end of the listing. The listing therefore starts at the previous end,
+   * follows any new pages until an empty one, and then walks back until it reaches a page that was
+   * not modified. The empty page after the last one is remembered as well, so tags appended after
+   * a full last page are noticed. When nothing changed, this costs two requests, both answered with
+   * <code>304 Not Modified</code>.</p>
+   *
+   * <p>A tag re-pushed to another commit only changes its own page, which may be further back than
+   * the walk reaches. Such tags are left to the periodic reconciliation.</p>
+   *
+   * <p>The validators of the changed pages are not persisted here. Callers must do so through
+   * {@link #commit(GitHubTagPages)} after the tags have been processed.</p>
+   *
+   * @param project The project to list tags of.
+   * @throws FileNotFoundException Thrown if the repository does not exist.
+   * @throws IOException Thrown if GitHub could not be reached or answered with an error.
+   */
+  public GitHubTagPages listChangedTags(Project project) throws IOException {
+    final Map<String, HttpValidator> stored = validators.findByProject(project.getId());
+    final Map<Integer, HttpValidator> changed = new HashMap<>();
+    final GitHubTagPages pages = new GitHubTagPages();
+
+    // Validators are only honoured for the token they were issued to, so stick to one token
+    final String token = clients.getToken(project.getId());
+    final HttpValidator endValidator = stored.get(END_RESOURCE);
+    final int lastPage = lastPage(stored);
+
+    // Without a known end, every page is listed from the start
+    int page = endValidator != null ? lastPage + 1 : 1;
+    int end;
+
+    while (true) {
+      final boolean previousEnd = endValidator != null && page == lastPage + 1;
+      final List<GitHubTagRepresentation> tags = fetchPage(project, token, page,
+          previousEnd ? endValidator : stored.get(PAGE_RESOURCE + page), changed, pages);
+
+      // Either the previous end is still empty, or the listing grew up to another empty page
+      if (tags == null && previousEnd || tags != null && tags.isEmpty()) {
+        end = page;
+        break;
+      }
+
+      page++;
+    }
+
+    if (endValidator != null) {
+      for (page = lastPage; page > 0; page--) {
+        final List<GitHubTagRepresentation> tags =
+            fetchPage(project, token, page, stored.get(PAGE_RESOURCE + page), changed, pages);
+
+        if (tags == null) {
+          break;
+        }
+
+        // The listing shrank
+        if (tags.isEmpty()) {
+          end = page;
+        }
+      }
+    }
+
+    final int listingEnd = end;
+
+    changed.forEach((number, validator) -> {
+      if (number < listingEnd) {
+        pages.getUpdatedValidators().add(validator);
+      } else if (number == listingEnd) {
+        pages.getUpdatedValidators().add(new HttpValidator(project.getId(), END_RESOURCE,
+            validator.getEtag(), validator.getLastModified()));
+      }
+    });
+
+    // Pages from the end onwards no longer exist
+    stored.values().stream()
+        .filter(validator -> pageNumber(validator.getResource()) >= listingEnd)
+        .forEach(pages.getRemovedValidators()::add);
+
+    log.debug("Listed tags of {} with {} requests, {} not modified", project.getIdentifier(),
+        pages.getRequests(), pages.getNotModified());
+
+    return pages;
+  }
+
+  /**
+   * Persists the validators of a listing whose tags have been processed.
+   */
+  public void commit(GitHubTagPages pages) {
+    validators.update(pages.getUpdatedValidators(), pages.getRemovedValidators());
+  }
+
+  /**
+   * Fetches a single page of tags, recording the validators of a changed page.
+   *
+   * @return The tags of the page, or null if it was not modified.
+   */
+  private List<GitHubTagRepresentation> fetchPage(Project project, String token, int page,
+      HttpValidator validator, Map<Integer, HttpValidator> changed, GitHubTagPages pages)
+      throws IOException {
+    final Request.Builder request = new Request.Builder()
+        .url(props.getGithub().getApiUrl() + "/repos/" + project.getIdentifier()
+            + "/tags?per_page=" + PAGE_SIZE + "&page=" + page)
+        .header("Accept", "application/vnd.github.v3+json")
+        .header("Authorization", "token " + token);
+
+    if (validator != null && validator.getEtag() != null) {
+      request.header("If-None-Match", validator.getEtag());
+    }
+
+    if (validator != null && validator.getLastModified() != null) {
+      request.header("If-Modified-Since", validator.getLastModified());
+    }
+
+    try (Response response = httpClient.newCall(request.build()).execute()) {
+      if (response.code() == 304) {
+        pages.addUnchangedPage();
+        return null;
+      }
+
+      if (response.code() == 404) {
+        throw new FileNotFoundException("GitHub repository does not exist: "
+            + project.getIdentifier());
+      }
+
+      final ResponseBody body = response.body();
+
+      if (!response.isSuccessful() || body == null) {
+        throw new IOException("Unexpected response while listing tags of "
+            + project.getIdentifier() + ": " + response.code());
+      }
+
+      final List<GitHubTagRepresentation> tags = mapper.readValue(body.byteStream(), TAG_LIST);
+
+      pages.addChangedPage(tags);
+      changed.put(page, new HttpValidator(project.getId(), PAGE_RESOURCE + page,
+          response.header("ETag"), response.header("Last-Modified")));
+
+      return tags;
+    }
+  }
+
+  /**
+   * The highest page number with stored validators, or 0 if there is none.
+   */
+  private static int lastPage(Map<String, HttpValidator> stored) {
+    return stored.keySet().stream()
+        .mapToInt(GitHubTagClient::pageNumber)
+        .max()
+        .orElse(0);
+  }
+
+  /**
+   * The page number of a tags page resource, or 0 for the empty page after the last one and for
+   * resources that are not tags pages.
+   */
+  private static int pageNumber(String resource) {
+    if (!resource.startsWith(PAGE_RESOURCE)) {
+      return 0;
+    }
+
+    try {
+      return Integer.parseInt(resource.substring(PAGE_RESOURCE.length()));
+    } catch (NumberFormatException e) {
+      return 0;
+    }
+  }
+}
@@ -0,0 +1,56 @@
+package net.evenh.versionmonitor.application.hosts.github;
+
+import java.util.ArrayList;
+import java.util.List;
+import net.evenh.versionmonitor.domain.validators.HttpValidator;
+
+/**
+ * The outcome of listing the tags of a repository with conditional requests.
+ *
+ * <p>Only tags on pages that changed since the previous listing are included. Pages answered with
+ * <code>304 Not Modified</code> contain nothing but tags that were already processed.</p>
+ */
+public class GitHubTagPages {
+  private final List<GitHubTagRepresentation> tags = new ArrayList<>();
+  private final List<HttpValidator> updatedValidators = new ArrayList<>();
+  private final List<HttpValidator> removedValidators = new ArrayList<>();
+  private int requests;
+  private int notModified;
+
+  /**
+   * Whether any page changed since the previous listing.
+   */
+  public boolean isChanged() {
+    return requests > notModified || !removedValidators.isEmpty();
+  }
+
+  public List<GitHubTagRepresentation> getTags() {
+    return tags;
+  }
+
+  public List<HttpValidator> getUpdatedValidators() {
+    return updatedValidators;
+  }
+
+  public List<HttpValidator> getRemovedValidators() {
+    return removedValidators;
+  }
+
+  public int getRequests() {
+    return requests;
+  }
+
+  public int getNotModified() {
+    return notModified;
+  }
+
+  void addChangedPage(List<GitHubTagRepresentation> pageTags) {
+    requests++;
+    tags.addAll(pageTags);
+  }
+
+  void addUnchangedPage() {
+    requests++;
+    notModified++;
+  }
+}
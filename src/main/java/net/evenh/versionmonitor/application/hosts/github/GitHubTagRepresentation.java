@@ -0,0 +1,49 @@
+package net.evenh.versionmonitor.application.hosts.github;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * A tag as listed by the GitHub tags API.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class GitHubTagRepresentation {
+  private String name;
+  private Commit commit;
+
+  public String getName() {
+    return name;
+  }
+
+  public void setName(String name) {
+    this.name = name;
+  }
+
+  public Commit getCommit() {
+    return commit;
+  }
+
+  public void setCommit(Commit commit) {
+    this.commit = commit;
+  }
+
+  @Override
+  public String toString() {
+    return "github-tag{"
+      + "name='" + name + '\''
+      + ", commit='" + (commit != null ? commit.getSha() : null) + '\''
+      + '}';
+  }
+
+  @JsonIgnoreProperties(ignoreUnknown = true)
+  public static class Commit {
+    private String sha;
+
+    public String getSha() {
+      return sha;
+    }
+
+    public void setSha(String sha) {
+      this.sha = sha;
+    }
+  }
+}
@@ -0,0 +1,173 @@
+package net.evenh.versionmonitor.application.hosts.github;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.io.BaseEncoding;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Optional;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import net.evenh.versionmonitor.domain.notifications.NotificationService;
+import net.evenh.versionmonitor.domain.releases.Release;
+import net.evenh.versionmonitor.infrastructure.config.VersionmonitorConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Handles tags pushed by GitHub webhooks.
+ *
+ * <p><code>create</code> events for tags and <code>release</code> events are stored as releases of
+ * the matching project and notified at once, without waiting for the next check. Projects that
+ * receive events are polled less often afterwards.</p>
+ *
+ * <p>Only <code>release</code> events announcing a visible release are stored, see
+ * {@link #announcesRelease(JsonNode)}. Edited, deleted and unpublished releases, and drafts, are
+ * ignored.</p>
+ */
+@Service
+public class GitHubWebhookService {
+  private static final Logger log = LoggerFactory.getLogger(GitHubWebhookService.class);
+  private static final String SIGNATURE_PREFIX = "sha256=";
+
+  @Autowired
+  private GitHubProjectRepository projects;
+
+  @Autowired
+  private GitHubHostService hostService;
+
+  @Autowired
+  private NotificationService notificationService;
+
+  @Autowired
+  private ObjectMapper mapper;
+
+  @Autowired
+  private VersionmonitorConfiguration props;
+
+  /**
+   * Whether a webhook secret is configured.
+   */
+  public boolean isEnabled() {
+    final String secret = props.getGithub().getWebhook().getSecret();
+
+    return secret != null && !secret.isEmpty();
+  }
+
+  /**
+   * Verifies the <code>X-Hub-Signature-256</code> header of a webhook delivery.
+   *
+   * @param payload The raw request body.
+   * @param signature The signature header, which may be null.
+   * @return True if the payload was signed with the configured secret.
+   */
+  public boolean hasValidSignature(byte[] payload, String signature) {
+    if (!isEnabled() || signature == null || !signature.startsWith(SIGNATURE_PREFIX)) {
+      return false;
+    }
+
+    final byte[] provided;
+
+    try {
+      provided = BaseEncoding.base16().lowerCase()
+          .decode(signature.substring(SIGNATURE_PREFIX.length()).toLowerCase());
+    } catch (IllegalArgumentException e) {
+      return false;
+    }
+
+    try {
+      final Mac mac = Mac.getInstance("HmacSHA256");
+      mac.init(new SecretKeySpec(
+          props.getGithub().getWebhook().getSecret().getBytes(StandardCharsets.UTF_8),
+          "HmacSHA256"));
+
+      return MessageDigest.isEqual(mac.doFinal(payload), provided);
+    } catch (GeneralSecurityException e) {
+      log.warn("Could not verify webhook signature", e);
+      return false;
+    }
+  }
+
+  /**
+   * Stores and notifies the tag of a <code>create</code> or <code>release</code> event.
+   *
+   * @param event The <code>X-GitHub-Event</code> header.
+   * @param payload The verified request body.
+   * @return The new release, or empty if the event holds no new tag of a known project.
+   * @throws IOException Thrown if the payload is not valid JSON.
+   */
+  public Optional<Release> handle(String event, byte[] payload) throws IOException {
+    final JsonNode body = mapper.readTree(payload);
+    final String tagName;
+    final Date date;
+
+    if ("create".equals(event) && "tag".equals(body.path("ref_type").asText())) {
+      tagName = body.path("ref").asText(null);
+      date = new Date();
+    } else if ("release".equals(event)) {
+      if (!announcesRelease(body)) {
+        log.debug("Ignoring GitHub release event with action {}", body.path("action").asText());
+        return Optional.empty();
+      }
+
+      final JsonNode release = body.path("release");
+      tagName = release.path("tag_name").asText(null);
+      date = parseDate(release.path("published_at").asText(
+          release.path("created_at").asText(null)));
+    } else {
+      log.debug("Ignoring GitHub {} event", event);
+      return Optional.empty();
+    }
+
+    final String identifier = body.path("repository").path("full_name").asText(null);
+
+    if (tagName == null || identifier == null) {
+      log.debug("Ignoring GitHub {} event without tag or repository", event);
+      return Optional.empty();
+    }
+
+    final Optional<GitHubProject> project = projects.findFirstByIdentifierIgnoreCase(identifier);
+
+    if (!project.isPresent()) {
+      log.debug("Ignoring GitHub {} event for unknown repository {}", event, identifier);
+      return Optional.empty();
+    }
+
+    projects.updatePushedAt(project.get().getId(), new Date());
+
+    final Optional<Release> release = hostService.ingestPushedTag(project.get(), tagName, date);
+
+    release.ifPresent(newRelease ->
+        notificationService.notify(Collections.singletonList(newRelease)));
+
+    log.info("Received {} event for tag {} of {}, {}", event, tagName, identifier,
+        release.isPresent() ? "stored as new release" : "already known");
+
+    return release;
+  }
+
+  /**
+   * Tells whether a <code>release</code> event announces a release that is visible on GitHub,
+   * either by publishing it or by creating it as anything but a draft.
+   */
+  private static boolean announcesRelease(JsonNode body) {
+    final String action = body.path("action").asText();
+
+    if ("published".equals(action) || "released".equals(action)) {
+      return true;
+    }
+
+    return "created".equals(action) && !body.path("release").path("draft").asBoolean(false);
+  }
+
+  private static Date parseDate(String date) {
+    return date != null ? Date.from(Instant.parse(date)) : new Date();
+  }
+}
@@ -0,0 +1,260 @@
+package net.evenh.versionmonitor.application.hosts.npm;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.Iterables;
+import java.io.IOException;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import net.evenh.versionmonitor.domain.feeds.FeedCursor;
+import net.evenh.versionmonitor.domain.feeds.FeedCursorRepository;
+import net.evenh.versionmonitor.infrastructure.config.VersionmonitorConfiguration;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Follows the CouchDB style <code>_changes</code> feed of an npm registry replica.
+ *
+ * <p>Every change names a package that was published, updated or removed. Changes are read in
+ * batches from the persisted position of the feed, and the tracked packages among them are made
+ * due, so the next release check picks them up. Packages that did not change are only polled at
+ * the fallback interval, see {@link NpmHostService#minimumCheckInterval}.</p>
+ *
+ * <p>The first run starts at the current end of the feed, as every package is checked on its own
+ * schedule anyway. Making a package due is idempotent, so several nodes may follow the feed, at
+ * worst reading the same changes twice.</p>
+ */
+@Component
+public class NpmChangesFollower {
+  private static final Logger log = LoggerFactory.getLogger(NpmChangesFollower.class);
+
+  static final String CURSOR = "npm:changes";
+
+  /**
+   * The number of package names made due per query.
+   */
+  private static final int IDENTIFIERS_PER_QUERY = 500;
+
+  private final OkHttpClient httpClient;
+  private final ObjectMapper mapper;
+  private final FeedCursorRepository cursors;
+  private final NpmProjectRepository projects;
+  private final VersionmonitorConfiguration props;
+
+  /**
+   * Creates a feed follower sharing the application HTTP client.
+   */
+  @Autowired
+  public NpmChangesFollower(OkHttpClient httpClient, ObjectMapper mapper,
+      FeedCursorRepository cursors, NpmProjectRepository projects,
+      VersionmonitorConfiguration props) {
+    this.httpClient = httpClient;
+    this.mapper = mapper;
+    this.cursors = cursors;
+    this.projects = projects;
+    this.props = props;
+  }
+
+  /**
+   * Reads the changes since the last run, and makes the tracked packages among them due.
+   */
+  @Scheduled(cron = "${versionmonitor.npm.changes.cron:0 * * * * ?}")
+  public void follow() {
+    final VersionmonitorConfiguration.Npm.Changes config = props.getNpm().getChanges();
+
+    if (!config.isEnabled()) {
+      return;
+    }
+
+    try {
+      final Optional<FeedCursor> cursor = cursors.findById(CURSOR);
+
+      if (!cursor.isPresent()) {
+        final String since = fetchUpdateSequence();
+
+        cursors.save(new FeedCursor(CURSOR, since));
+        log.info("Started following npm changes at sequence {}", since);
+        return;
+      }
+
+      String since = cursor.get().getSince();
+      int changes = 0;
+      int due = 0;
+
+      for (int batch = 0; batch < config.getMaxBatches(); batch++) {
+        final ChangesBatch changed = fetchChanges(since, config.getBatchSize());
+
+        due += markDue(changed.identifiers);
+        changes += changed.size;
+        since = changed.lastSequence;
+
+        cursors.save(new FeedCursor(CURSOR, since));
+
+        if (changed.size < config.getBatchSize()) {
+          break;
+        }
+      }
+
+      log.debug("Read {} npm changes up to sequence {}, {} tracked packages made due", changes,
+          since, due);
+    } catch (IOException | RuntimeException e) {
+      log.warn("Got exception while following npm changes", e);
+    }
+  }
+
+  private int markDue(Set<String> identifiers) {
+    final Date now = new Date();
+    int due = 0;
+
+    for (List<String> chunk : Iterables.partition(identifiers, IDENTIFIERS_PER_QUERY)) {
+      due += projects.markDue(chunk, now);
+    }
+
+    return due;
+  }
+
+  /**
+   * Fetches the current end of the feed.
+   */
+  private String fetchUpdateSequence() throws IOException {
+    final HttpUrl url = HttpUrl.parse(props.getNpm().getChanges().getUrl() + "/");
+
+    try (Response response = execute(url); JsonParser parser = parse(response)) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        throw new IOException("Expected a JSON object as npm registry database information");
+      }
+
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        final String field = parser.getCurrentName();
+
+        parser.nextToken();
+
+        if ("update_seq".equals(field)) {
+          return sequenceOf(parser);
+        }
+
+        parser.skipChildren();
+      }
+    }
+
+    throw new IOException("The npm registry database information has no update sequence");
+  }
+
+  /**
+   * Fetches a batch of changes, keeping only the names of the changed packages.
+   */
+  private ChangesBatch fetchChanges(String since, int limit) throws IOException {
+    final HttpUrl url = HttpUrl.parse(props.getNpm().getChanges().getUrl() + "/_changes")
+        .newBuilder()
+        .addQueryParameter("since", since)
+        .addQueryParameter("limit", String.valueOf(limit))
+        .build();
+
+    final ChangesBatch batch = new ChangesBatch(since);
+
+    try (Response response = execute(url); JsonParser parser = parse(response)) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        throw new IOException("Expected a JSON object as npm changes");
+      }
+
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        final String field = parser.getCurrentName();
+        final JsonToken value = parser.nextToken();
+
+        if ("results".equals(field) && value == JsonToken.START_ARRAY) {
+          while (parser.nextToken() == JsonToken.START_OBJECT) {
+            readChange(parser, batch);
+          }
+        } else if ("last_seq".equals(field)) {
+          batch.lastSequence = sequenceOf(parser);
+        } else {
+          parser.skipChildren();
+        }
+      }
+    }
+
+    return batch;
+  }
+
+  private void readChange(JsonParser parser, ChangesBatch batch) throws IOException {
+    String sequence = null;
+
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      final String field = parser.getCurrentName();
+      final JsonToken value = parser.nextToken();
+
+      if ("id".equals(field) && value == JsonToken.VALUE_STRING) {
+        final String id = parser.getText();
+
+        if (!id.startsWith("_design/")) {
+          batch.identifiers.add(id);
+        }
+      } else if ("seq".equals(field)) {
+        sequence = sequenceOf(parser);
+      } else {
+        parser.skipChildren();
+      }
+    }
+
+    batch.size++;
+
+    if (sequence != null) {
+      batch.lastSequence = sequence;
+    }
+  }
+
+  /**
+   * Reads a sequence, which is a number in CouchDB 1.x and an opaque string in later versions.
+   */
+  private static String sequenceOf(JsonParser parser) throws IOException {
+    if (parser.currentToken().isScalarValue()) {
+      return parser.getText();
+    }
+
+    throw new IOException("Unexpected npm change sequence: " + parser.currentToken());
+  }
+
+  private Response execute(HttpUrl url) throws IOException {
+    final Request request = new Request.Builder()
+        .url(url)
+        .header("Accept", "application/json")
+        .build();
+
+    final Response response = httpClient.newCall(request).execute();
+
+    if (!response.isSuccessful() || response.body() == null) {
+      response.close();
+      throw new IOException("Unexpected response from " + url + ": " + response.code());
+    }
+
+    return response;
+  }
+
+  private JsonParser parse(Response response) throws IOException {
+    return mapper.getFactory().createParser(response.body().byteStream());
+  }
+
+  /**
+   * The changed packages of a batch of changes.
+   */
+  private static final class ChangesBatch {
+    private final Set<String> identifiers = new LinkedHashSet<>();
+    private String lastSequence;
+    private int size;
+
+    private ChangesBatch(String since) {
+      this.lastSequence = since;
+    }
+  }
+}
@@ -0,0 +1,142 @@
+package net.evenh.versionmonitor.application.hosts.npm;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import net.evenh.versionmonitor.domain.releases.KnownVersionIndex;
+import net.evenh.versionmonitor.domain.validators.HttpValidator;
+
+/**
+ * The parts of an npm registry document needed to find new releases of a package.
+ *
+ * <p>Documents are read as a stream of tokens. Only the name, the description, the keys of
+ * <code>versions</code> and the values of <code>time</code> are read, and everything else is
+ * skipped without being materialized. Versions are diffed against the known versions as they are
+ * read, so only new versions are kept, and memory use grows with the number of new versions rather
+ * than with the size of the document.</p>
+ */
+public class NpmDocument {
+  private final String name;
+  private final String description;
+  private final Map<String, Date> newVersions;
+  private final String etag;
+  private final String lastModified;
+
+  private NpmDocument(String name, String description, Map<String, Date> newVersions, String etag,
+      String lastModified) {
+    this.name = name;
+    this.description = description;
+    this.newVersions = newVersions;
+    this.etag = etag;
+    this.lastModified = lastModified;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public String getDescription() {
+    return description;
+  }
+
+  /**
+   * The versions not known before, in document order, with their release time if the document has
+   * one.
+   */
+  public Map<String, Date> getNewVersions() {
+    return Collections.unmodifiableMap(newVersions);
+  }
+
+  /**
+   * The validators to fetch the document conditionally with next time.
+   *
+   * @param projectId The project the document belongs to.
+   * @param resource Identifies the kind of document.
+   */
+  public HttpValidator toValidator(Long projectId, String resource) {
+    return new HttpValidator(projectId, resource, etag, lastModified);
+  }
+
+  /**
+   * Reads a full or abbreviated registry document.
+   *
+   * @param parser A parser positioned before the document.
+   * @param knownVersions The versions to leave out.
+   * @param etag The <code>ETag</code> of the response.
+   * @param lastModified The <code>Last-Modified</code> time of the response.
+   */
+  static NpmDocument parse(JsonParser parser, KnownVersionIndex knownVersions, String etag,
+      String lastModified) throws IOException {
+    String id = null;
+    String name = null;
+    String description = null;
+    Map<String, Date> versions = null;
+
+    // The time object may come before the versions, so keep the times of any unknown version
+    final Map<String, Date> times = new HashMap<>();
+
+    if (parser.nextToken() != JsonToken.START_OBJECT) {
+      throw new IOException("Expected a JSON object as npm registry document");
+    }
+
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      final String field = parser.getCurrentName();
+      final JsonToken value = parser.nextToken();
+
+      if ("_id".equals(field) && value == JsonToken.VALUE_STRING) {
+        id = parser.getText();
+      } else if ("name".equals(field) && value == JsonToken.VALUE_STRING) {
+        name = parser.getText();
+      } else if ("description".equals(field) && value == JsonToken.VALUE_STRING) {
+        description = parser.getText();
+      } else if ("versions".equals(field) && value == JsonToken.START_OBJECT) {
+        versions = new LinkedHashMap<>();
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+          final String version = parser.getCurrentName();
+
+          if (!knownVersions.contains(version)) {
+            versions.put(version, null);
+          }
+
+          parser.nextToken();
+          parser.skipChildren();
+        }
+      } else if ("time".equals(field) && value == JsonToken.START_OBJECT) {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+          final String version = parser.getCurrentName();
+
+          if (parser.nextToken() == JsonToken.VALUE_STRING && !knownVersions.contains(version)) {
+            parseTime(parser.getText()).ifPresent(time -> times.put(version, time));
+          } else {
+            parser.skipChildren();
+          }
+        }
+      } else {
+        parser.skipChildren();
+      }
+    }
+
+    final Map<String, Date> newVersions = versions != null ? versions : new LinkedHashMap<>();
+    newVersions.replaceAll((version, time) -> times.get(version));
+
+    return new NpmDocument(id != null ? id : name, description, newVersions, etag,
+        lastModified);
+  }
+
+  private static Optional<Date> parseTime(String time) {
+    try {
+      return Optional.of(Date.from(Instant.parse(time)));
+    } catch (DateTimeParseException e) {
+      return Optional.empty();
+    }
+  }
+}
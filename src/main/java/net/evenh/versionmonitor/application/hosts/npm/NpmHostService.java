@@ -1,40 +1,52 @@
 package net.evenh.versionmonitor.application.hosts.npm;
 
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.stream.Collectors;
 import net.evenh.versionmonitor.domain.hosts.HostRegistry;
 import net.evenh.versionmonitor.domain.hosts.HostService;
 import net.evenh.versionmonitor.domain.projects.Project;
-import net.evenh.versionmonitor.domain.projects.ProjectService;
+import net.evenh.versionmonitor.domain.releases.KnownVersionIndex;
 import net.evenh.versionmonitor.domain.releases.Release;
-import net.evenh.versionmonitor.domain.releases.ReleaseRepository;
+import net.evenh.versionmonitor.domain.releases.ReleaseIngestionService;
+import net.evenh.versionmonitor.domain.validators.HttpValidator;
+import net.evenh.versionmonitor.domain.validators.HttpValidatorService;
+import net.evenh.versionmonitor.infrastructure.config.VersionmonitorConfiguration;
+import net.evenh.versionmonitor.infrastructure.config.VersionmonitorConfiguration.Npm.FetchMode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.HttpClientErrorException;
-import org.springframework.web.client.RestTemplate;
 
 @Service("npmHostService")
 public class NpmHostService implements HostService, InitializingBean {
   private static final Logger log = LoggerFactory.getLogger(NpmHostService.class);
-  private static final String npmRegistry = "http://registry.npmjs.org/";
+
+  static final String DOCUMENT_RESOURCE = "npm:document";
+  static final String ABBREVIATED_RESOURCE = "npm:abbreviated";
 
   @Autowired
   private HostRegistry registry;
 
   @Autowired
-  private ProjectService projectService;
+  private ReleaseIngestionService ingestion;
+
+  @Autowired
+  private NpmRegistryClient client;
 
   @Autowired
-  private ReleaseRepository releases;
+  private HttpValidatorService validators;
 
   @Autowired
-  private RestTemplate http;
+  private VersionmonitorConfiguration props;
 
   @Override
   public void afterPropertiesSet() throws Exception {
@@ -61,10 +73,12 @@ public class NpmHostService implements HostService, InitializingBean {
   public Optional<? extends Project> getProject(String identifier) {
     log.debug("Processing NPM project with identifier: {}", identifier);
     try {
-      NpmProjectRepresentation npm = http
-          .getForObject(npmRegistry + "/" + identifier, NpmProjectRepresentation.class);
-      return Optional.of(createNpmProject(npm, identifier));
-    } catch (HttpClientErrorException e) {
+      return client.fetchDocument(identifier, KnownVersionIndex.of(Collections.emptyList()), null)
+          .map(document -> createNpmProject(document, identifier));
+    } catch (FileNotFoundException e) {
+      log.info("NPM project does not exist: {}", identifier);
+      return Optional.empty();
+    } catch (IOException e) {
       log.warn("Got error while fetching NPM project: {}", identifier, e);
       return Optional.empty();
     }
@@ -80,67 +94,84 @@ public class NpmHostService implements HostService, InitializingBean {
 
     final String prefix = this.getClass().getSimpleName() + "[" + project.getIdentifier() + "]: ";
 
-    List<Release> newReleases = new ArrayList<>();
+    final KnownVersionIndex knownVersions = ingestion.knownVersions(project);
+    final Map<String, HttpValidator> known = validators.findByProject(project.getId());
+    final List<HttpValidator> updated = new ArrayList<>();
 
-    List<String> existingReleases = project.getReleases().stream()
-        .map(Release::getVersion)
-        .collect(Collectors.toList());
+    if (props.getNpm().getFetchMode() == FetchMode.ABBREVIATED) {
+      final Optional<NpmDocument> abbreviated = client.fetchAbbreviatedDocument(
+          project.getIdentifier(), knownVersions, known.get(ABBREVIATED_RESOURCE));
 
-    try {
-      Optional<? extends Project> remoteProject = getProject(project.getIdentifier());
-
-      if (!remoteProject.isPresent()) {
-        log.warn(prefix + "Could not read project {} from NPM.", project.getIdentifier());
-        return newReleases;
-      } else {
-        remoteProject.ifPresent(npmProject -> {
-
-          npmProject.getReleases().forEach(release -> {
-            if (!existingReleases.contains(release.getVersion())) {
-              releases.saveAndFlush(release);
-              newReleases.add(release);
-            }
-          });
-
-          newReleases.forEach(project::addRelease);
-          projectService.persist(project);
-        });
+      if (!abbreviated.isPresent()) {
+        log.debug(prefix + "Not modified");
+        return Collections.emptyList();
       }
-    } catch (Exception e) {
-      log.warn(prefix + "Got exception while finding new releases", e);
+
+      updated.add(abbreviated.get().toValidator(project.getId(), ABBREVIATED_RESOURCE));
+
+      if (abbreviated.get().getNewVersions().isEmpty()) {
+        log.debug(prefix + "No new versions");
+        validators.update(updated, Collections.emptyList());
+        return Collections.emptyList();
+      }
+    }
+
+    // The release times are only part of the full document
+    final Optional<NpmDocument> document = client.fetchDocument(project.getIdentifier(),
+        knownVersions, known.get(DOCUMENT_RESOURCE));
+
+    if (!document.isPresent()) {
+      // The registry has not caught up with the abbreviated document yet, try again next time
+      log.debug(prefix + "Not modified");
+      return Collections.emptyList();
     }
 
+    final List<Release> newReleases =
+        ingestion.ingest(project, mapToReleases(document.get(), project.getIdentifier()));
+
+    updated.add(document.get().toValidator(project.getId(), DOCUMENT_RESOURCE));
+    validators.update(updated, Collections.emptyList());
+
     log.debug(prefix + "Found {} new releases", newReleases.size());
 
     return newReleases;
   }
 
-  private NpmProject createNpmProject(NpmProjectRepresentation npm, String identifier) {
-    final NpmProject project = new NpmProject();
-
-    project.setName(npm.getName());
-    project.setDescription(npm.getDescription());
-    project.setIdentifier(identifier);
+  /**
+   * Packages are polled at most every fallback interval while the changes feed is followed, as
+   * they are made due whenever they change.
+   */
+  @Override
+  public Duration minimumCheckInterval(Project project) {
+    final VersionmonitorConfiguration.Npm.Changes changes = props.getNpm().getChanges();
 
-    final List<Release> releases = new ArrayList<>();
+    if (changes.isEnabled()) {
+      return Duration.ofMinutes(changes.getPollIntervalMinutes());
+    }
 
-    // Map releases
-    npm.getReleases().forEach((key, value) -> {
-      value.setReleased(npm.getTime().get(key));
+    return Duration.ZERO;
+  }
 
-      releases.add(mapToRelease(value, identifier));
-    });
+  private NpmProject createNpmProject(NpmDocument document, String identifier) {
+    final NpmProject project = new NpmProject();
 
-    project.setReleases(releases);
+    project.setName(document.getName());
+    project.setDescription(document.getDescription());
+    project.setIdentifier(identifier);
+    project.setReleases(mapToReleases(document, identifier));
 
     return project;
   }
 
-  private Release mapToRelease(NpmReleaseRepresentation release, String identifier) {
-    return Release.builder()
-      .withVersion(release.getVersion())
-      .withUrl("https://www.npmjs.com/package/" + identifier)
-      .withCreatedAt(release.getReleased())
-      .build();
+  private List<Release> mapToReleases(NpmDocument document, String identifier) {
+    final List<Release> releases = new ArrayList<>();
+
+    document.getNewVersions().forEach((version, released) -> releases.add(Release.builder()
+        .withVersion(version)
+        .withUrl("https://www.npmjs.com/package/" + identifier)
+        .withCreatedAt(released != null ? released : new Date(0))
+        .build()));
+
+    return releases;
   }
 }
@@ -0,0 +1,33 @@
+package net.evenh.versionmonitor.application.hosts.npm;
+
+import java.util.Collection;
+import java.util.Date;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * A repository for the npm specific state of projects.
+ */
+@Repository
+public interface NpmProjectRepository extends JpaRepository<NpmProject, Long> {
+  /**
+   * Makes the tracked packages among the given ones due for a check, without loading or merging
+   * the projects.
+   *
+   * @param identifiers The package names.
+   * @param now The time the packages become due.
+   * @return The number of projects made due. Projects that are already due are not counted.
+   */
+  @Transactional
+  @Modifying
+  @Query(value = "update {h-schema}project set next_check_at = :now "
+      + "where identifier in (:identifiers) and next_check_at > :now "
+      + "and id in (select id from {h-schema}project_npm)", nativeQuery = true)
+  int markDue(@Param(value = "identifiers") Collection<String> identifiers,
+      @Param(value = "now") Date now);
+
+}
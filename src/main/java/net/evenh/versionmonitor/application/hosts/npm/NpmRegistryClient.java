@@ -0,0 +1,170 @@
+package net.evenh.versionmonitor.application.hosts.npm;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.io.CountingInputStream;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import net.evenh.versionmonitor.domain.releases.KnownVersionIndex;
+import net.evenh.versionmonitor.domain.validators.HttpValidator;
+import net.evenh.versionmonitor.infrastructure.config.VersionmonitorConfiguration;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fetches package documents from the npm registry.
+ *
+ * <p>The full document holds the complete <code>package.json</code> of every version, which runs
+ * into tens of megabytes for large packages. The abbreviated document only holds what is needed
+ * to install each version, and is usually a fraction of the size, but lacks release times.</p>
+ *
+ * <p>Documents are fetched conditionally with the validators of the previous fetch, which are
+ * persisted per project, so an unchanged document costs neither a download nor parsing, even
+ * across restarts. Requests are counted under <code>versionmonitor.npm.document.requests</code>,
+ * by whether the document was <code>not_modified</code>, <code>modified</code> or fetched
+ * <code>unconditional</code>ly.</p>
+ *
+ * <p>The size and parse time of every document are reported per kind of document, under
+ * <code>versionmonitor.npm.document.bytes</code> and
+ * <code>versionmonitor.npm.document.parse</code>.</p>
+ */
+@Component
+public class NpmRegistryClient {
+  private static final Logger log = LoggerFactory.getLogger(NpmRegistryClient.class);
+  private static final String ABBREVIATED = "application/vnd.npm.install-v1+json";
+
+  private final OkHttpClient httpClient;
+  private final ObjectMapper mapper;
+  private final MeterRegistry registry;
+  private final VersionmonitorConfiguration props;
+
+  /**
+   * Creates a registry client sharing the application HTTP client.
+   */
+  @Autowired
+  public NpmRegistryClient(OkHttpClient httpClient, ObjectMapper mapper, MeterRegistry registry,
+      VersionmonitorConfiguration props) {
+    this.httpClient = httpClient;
+    this.mapper = mapper;
+    this.registry = registry;
+    this.props = props;
+  }
+
+  /**
+   * Fetches the full document of a package, with the new versions and their release times.
+   *
+   * @param identifier The package name.
+   * @param knownVersions The versions to leave out.
+   * @param validator The validators of the previous fetch, or null to fetch unconditionally.
+   * @return The document, or empty if it was not modified since the previous fetch.
+   * @throws FileNotFoundException Thrown if the package does not exist.
+   * @throws IOException Thrown if the registry could not be reached or answered with an error.
+   */
+  public Optional<NpmDocument> fetchDocument(String identifier, KnownVersionIndex knownVersions,
+      HttpValidator validator) throws IOException {
+    return fetch(identifier, knownVersions, validator, "full", "application/json");
+  }
+
+  /**
+   * Fetches the abbreviated document of a package, with the new versions but no release times.
+   *
+   * @param identifier The package name.
+   * @param knownVersions The versions to leave out.
+   * @param validator The validators of the previous fetch, or null to fetch unconditionally.
+   * @return The document, or empty if it was not modified since the previous fetch.
+   * @throws FileNotFoundException Thrown if the package does not exist.
+   * @throws IOException Thrown if the registry could not be reached or answered with an error.
+   */
+  public Optional<NpmDocument> fetchAbbreviatedDocument(String identifier,
+      KnownVersionIndex knownVersions, HttpValidator validator) throws IOException {
+    return fetch(identifier, knownVersions, validator, "abbreviated", ABBREVIATED);
+  }
+
+  private Optional<NpmDocument> fetch(String identifier, KnownVersionIndex knownVersions,
+      HttpValidator validator, String kind, String accept) throws IOException {
+    final Request.Builder request = new Request.Builder()
+        .url(props.getNpm().getRegistryUrl() + "/" + identifier.replace("/", "%2F"))
+        .header("Accept", accept);
+
+    if (validator != null && validator.getEtag() != null) {
+      request.header("If-None-Match", validator.getEtag());
+    }
+
+    if (validator != null && validator.getLastModified() != null) {
+      request.header("If-Modified-Since", validator.getLastModified());
+    }
+
+    try (Response response = httpClient.newCall(request.build()).execute()) {
+      if (response.code() == 304) {
+        countRequest(kind, "not_modified");
+        log.debug("The {} document of {} was not modified", kind, identifier);
+        return Optional.empty();
+      }
+
+      if (response.code() == 404) {
+        throw new FileNotFoundException("NPM project does not exist: " + identifier);
+      }
+
+      final ResponseBody body = response.body();
+
+      if (!response.isSuccessful() || body == null) {
+        throw new IOException("Unexpected response while fetching NPM project " + identifier
+            + ": " + response.code());
+      }
+
+      final boolean conditional = validator != null && validator.isPresent();
+
+      countRequest(kind, conditional ? "modified" : "unconditional");
+
+      final CountingInputStream in = new CountingInputStream(body.byteStream());
+      final long start = System.nanoTime();
+      final NpmDocument document;
+
+      try (JsonParser parser = mapper.getFactory().createParser(in)) {
+        document = NpmDocument.parse(parser, knownVersions, response.header("ETag"),
+            response.header("Last-Modified"));
+      }
+
+      final long elapsed = System.nanoTime() - start;
+
+      DistributionSummary.builder("versionmonitor.npm.document.bytes")
+        .description("Size of npm registry documents")
+        .baseUnit("bytes")
+        .tag("kind", kind)
+        .register(registry)
+        .record(in.getCount());
+      Timer.builder("versionmonitor.npm.document.parse")
+        .description("Time spent reading and parsing npm registry documents")
+        .tag("kind", kind)
+        .register(registry)
+        .record(elapsed, TimeUnit.NANOSECONDS);
+
+      log.debug("Fetched {} document of {}: {} bytes, parsed in {} ms, {} new versions", kind,
+          identifier, in.getCount(), TimeUnit.NANOSECONDS.toMillis(elapsed),
+          document.getNewVersions().size());
+
+      return Optional.of(document);
+    }
+  }
+
+  private void countRequest(String kind, String result) {
+    Counter.builder("versionmonitor.npm.document.requests")
+      .description("Requests for npm registry documents, by whether they were modified")
+      .tag("kind", kind)
+      .tag("result", result)
+      .register(registry)
+      .increment();
+  }
+}
@@ -0,0 +1,52 @@
+package net.evenh.versionmonitor.application.jobs;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import net.evenh.versionmonitor.domain.projects.Project;
+import net.evenh.versionmonitor.domain.projects.ProjectService;
+import net.evenh.versionmonitor.infrastructure.config.VersionmonitorConfiguration;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Lists the projects in the slow retry lane, whose release checks keep failing.
+ */
+@Component
+@Endpoint(id = "failingprojects")
+public class FailingProjectsEndpoint {
+  private static final int MAX_PROJECTS = 500;
+
+  @Autowired
+  private ProjectService projectService;
+
+  @Autowired
+  private VersionmonitorConfiguration props;
+
+  /**
+   * Gets the failing projects, the most failing first.
+   */
+  @ReadOperation
+  public List<Map<String, Object>> failingProjects() {
+    return projectService
+        .findFailing(props.getJobchecker().getSlowLaneFailures(), MAX_PROJECTS).stream()
+        .map(FailingProjectsEndpoint::describe)
+        .collect(Collectors.toList());
+  }
+
+  private static Map<String, Object> describe(Project project) {
+    final Map<String, Object> details = new LinkedHashMap<>();
+
+    details.put("id", project.getId());
+    details.put("identifier", project.getIdentifier());
+    details.put("failureCount", project.getFailureCount());
+    details.put("lastFailureAt", project.getLastFailureAt());
+    details.put("failureReason", project.getFailureReason());
+    details.put("nextCheckAt", project.getNextCheckAt());
+
+    return details;
+  }
+}
@@ -0,0 +1,238 @@
+package net.evenh.versionmonitor.application.jobs;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import net.evenh.versionmonitor.domain.hosts.CheckDeferredException;
+import net.evenh.versionmonitor.domain.hosts.HostRegistry;
+import net.evenh.versionmonitor.domain.hosts.HostService;
+import net.evenh.versionmonitor.domain.projects.Project;
+import net.evenh.versionmonitor.domain.projects.ProjectService;
+import net.evenh.versionmonitor.domain.releases.Release;
+import net.evenh.versionmonitor.infrastructure.config.VersionmonitorConfiguration;
+import net.evenh.versionmonitor.infrastructure.config.async.VirtualThreads;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs release checks concurrently on the release check executor.
+ *
+ * <p>Projects are grouped by host, and each host gets at most as many workers ("lanes") as its
+ * configured concurrency limit. Every lane drains the shared queue of its host, so a slow host
+ * never starves the others and never gets more in-flight requests than it is allowed.</p>
+ *
+ * <p>When the checks run on virtual threads, every project is checked on its own thread instead.
+ * Hosts are then only limited if a concurrency is configured for them explicitly, through
+ * <code>versionmonitor.jobchecker.host-concurrency</code>.</p>
+ *
+ * <p>Every checked project is rescheduled according to its release cadence. When a check fails,
+ * the project is retried with an exponential backoff instead, and projects that keep failing end
+ * up in a slow retry lane where they are rarely checked and no longer logged on every failure.
+ * Projects whose host could not check them yet, such as when a rate limit is exhausted, are checked
+ * again as soon as the host allows it, without counting as failures.</p>
+ */
+@Component
+public class ReleaseCheckEngine {
+  private static final Logger logger = LoggerFactory.getLogger(ReleaseCheckEngine.class);
+
+  private final HostRegistry registry;
+  private final ProjectService projectService;
+  private final AsyncTaskExecutor executor;
+  private final VersionmonitorConfiguration props;
+
+  /**
+   * Creates a check engine running on the given executor.
+   */
+  @Autowired
+  public ReleaseCheckEngine(HostRegistry registry, ProjectService projectService,
+      @Qualifier("releaseCheckExecutor") AsyncTaskExecutor executor,
+      VersionmonitorConfiguration props) {
+    this.registry = registry;
+    this.projectService = projectService;
+    this.executor = executor;
+    this.props = props;
+  }
+
+  /**
+   * Checks the given projects for new releases, blocking until every check has completed.
+   *
+   * @param projects The projects to check.
+   * @return The new releases found across all projects.
+   */
+  public List<Release> run(Collection<Project> projects) {
+    final Map<HostService, Queue<Project>> work = new HashMap<>();
+
+    projects.forEach(project -> registry.forProject(project).ifPresent(host ->
+        work.computeIfAbsent(host, h -> new ConcurrentLinkedQueue<>()).add(project)));
+
+    final Queue<Release> releasesFound = new ConcurrentLinkedQueue<>();
+    final List<Future<?>> lanes = new ArrayList<>();
+    final boolean virtual = props.getAsync().isVirtualThreads() && VirtualThreads.isSupported();
+
+    work.forEach((host, queue) -> {
+      prefetch(host, queue);
+
+      if (virtual) {
+        lanes.addAll(submitPerProject(host, queue, releasesFound));
+        return;
+      }
+
+      final int laneCount = Math.min(concurrencyFor(host), queue.size());
+
+      logger.debug("Checking {} {} projects using {} lanes", queue.size(),
+          host.getHostIdentifier(), laneCount);
+
+      for (int i = 0; i < laneCount; i++) {
+        lanes.add(executor.submit(() -> drain(host, queue, releasesFound)));
+      }
+    });
+
+    lanes.forEach(this::await);
+
+    return new ArrayList<>(releasesFound);
+  }
+
+  private void prefetch(HostService host, Collection<Project> projects) {
+    try {
+      host.prefetch(projects);
+    } catch (RuntimeException e) {
+      logger.warn("Could not prefetch {} projects", host.getHostIdentifier(), e);
+    }
+  }
+
+  /**
+   * Submits a task per project, limited by a semaphore if the host has a configured concurrency.
+   */
+  private List<Future<?>> submitPerProject(HostService host, Queue<Project> queue,
+      Queue<Release> releasesFound) {
+    final Integer limit = props.getJobchecker().getHostConcurrency().get(host.getHostIdentifier());
+    final Semaphore permits = limit != null ? new Semaphore(Math.max(1, limit)) : null;
+    final List<Future<?>> tasks = new ArrayList<>();
+
+    logger.debug("Checking {} {} projects on virtual threads, at most {} at a time", queue.size(),
+        host.getHostIdentifier(), limit != null ? limit : "all");
+
+    Project project;
+
+    while ((project = queue.poll()) != null) {
+      final Project next = project;
+
+      tasks.add(executor.submit(() -> {
+        if (permits == null) {
+          check(host, next, releasesFound);
+          return;
+        }
+
+        try {
+          permits.acquire();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+
+        try {
+          check(host, next, releasesFound);
+        } finally {
+          permits.release();
+        }
+      }));
+    }
+
+    return tasks;
+  }
+
+  /**
+   * Checks projects from the queue until it is empty.
+   */
+  private void drain(HostService host, Queue<Project> queue, Queue<Release> releasesFound) {
+    Project project;
+
+    while ((project = queue.poll()) != null) {
+      check(host, project, releasesFound);
+    }
+  }
+
+  private void check(HostService host, Project project, Queue<Release> releasesFound) {
+    try {
+      releasesFound.addAll(host.check(project));
+    } catch (CheckDeferredException e) {
+      logger.debug("Deferring check of {} until {}: {}", project.getIdentifier(), e.getRetryAt(),
+          e.getMessage());
+      defer(project, e.getRetryAt());
+      return;
+    } catch (Exception e) {
+      recordFailure(project, e);
+      return;
+    }
+
+    reschedule(project);
+  }
+
+  private void reschedule(Project project) {
+    try {
+      projectService.reschedule(project);
+    } catch (RuntimeException e) {
+      logger.warn("Could not schedule next check for {}", project, e);
+    }
+  }
+
+  private void defer(Project project, Date retryAt) {
+    try {
+      projectService.defer(project, retryAt);
+    } catch (RuntimeException e) {
+      logger.warn("Could not defer next check of {}", project, e);
+    }
+  }
+
+  private void recordFailure(Project project, Exception cause) {
+    final int slowLane = props.getJobchecker().getSlowLaneFailures();
+    final int failures;
+
+    try {
+      failures = projectService.recordFailure(project, cause);
+    } catch (RuntimeException e) {
+      logger.warn("Could not record failed check of {}", project, e);
+      return;
+    }
+
+    if (failures == 1) {
+      logger.warn("Got exception while checking for updates for {}", project, cause);
+    } else if (failures == slowLane) {
+      logger.warn("Check of {} failed {} times in a row, moving it to the slow lane: {}",
+          project.getIdentifier(), failures, cause.toString());
+    } else {
+      logger.debug("Check of {} failed {} times in a row: {}", project.getIdentifier(), failures,
+          cause.toString());
+    }
+  }
+
+  private void await(Future<?> lane) {
+    try {
+      lane.get();
+    } catch (InterruptedException e) {
+      logger.warn("Interrupted while waiting for release checks to complete");
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException e) {
+      logger.warn("Release check lane terminated unexpectedly", e.getCause());
+    }
+  }
+
+  private int concurrencyFor(HostService host) {
+    final VersionmonitorConfiguration.Jobchecker jobchecker = props.getJobchecker();
+
+    return Math.max(1, jobchecker.getHostConcurrency()
+        .getOrDefault(host.getHostIdentifier(), jobchecker.getDefaultHostConcurrency()));
+  }
+}
@@ -1,12 +1,23 @@
 package net.evenh.versionmonitor.application.jobs;
 
-import java.util.ArrayList;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
-import net.evenh.versionmonitor.domain.hosts.HostRegistry;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import net.evenh.versionmonitor.domain.leases.CheckLeaseService;
 import net.evenh.versionmonitor.domain.notifications.NotificationService;
 import net.evenh.versionmonitor.domain.projects.Project;
+import net.evenh.versionmonitor.domain.projects.ProjectCursor;
 import net.evenh.versionmonitor.domain.projects.ProjectService;
 import net.evenh.versionmonitor.domain.releases.Release;
+import net.evenh.versionmonitor.infrastructure.config.VersionmonitorConfiguration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,46 +27,159 @@ import org.springframework.stereotype.Component;
 /**
  * Schedules and delegates the checking for new releases.
  *
+ * <p>Due projects are fetched and checked one page at a time, so only a single page of projects
+ * is held in memory regardless of how many projects are monitored. When leases are enabled, the
+ * pages are the batches of due projects this node manages to claim, so several nodes can share the
+ * work without checking a project twice.</p>
+ *
  * @author Even Holthe
  * @since 2016-01-17
  */
 @Component
 public class ReleaseChecker {
   private static final Logger logger = LoggerFactory.getLogger(ReleaseChecker.class);
+  private static final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+  private final AtomicLong peakHeapUsed = new AtomicLong();
 
   @Autowired
   private ProjectService service;
 
   @Autowired
-  private HostRegistry registry;
+  private CheckLeaseService leaseService;
+
+  @Autowired
+  private ReleaseCheckEngine engine;
 
   @Autowired
   private NotificationService notificationService;
 
+  @Autowired
+  private VersionmonitorConfiguration props;
+
+  private Timer runTimer;
+
+  @Autowired
+  void registerMetrics(MeterRegistry registry) {
+    runTimer = Timer.builder("versionmonitor.checks.run")
+      .description("Duration of a release check run")
+      .register(registry);
+
+    registry.gauge("versionmonitor.checks.heap.peak", peakHeapUsed);
+  }
+
   /**
    * Performs the actual checking for new releases at a scheduled interval.
    */
   @Scheduled(cron = "${versionmonitor.jobchecker.cron}")
   public void check() {
-    List<Project> projects = service.findAll();
+    final long start = System.currentTimeMillis();
+    final long heapAtStart = heapUsed();
+    final RunStatistics stats;
+
+    if (props.getJobchecker().getLeases().isEnabled()) {
+      stats = checkLeased(heapAtStart);
+    } else {
+      stats = checkAllDue(heapAtStart);
+    }
+
+    final long duration = System.currentTimeMillis() - start;
+
+    runTimer.record(duration, TimeUnit.MILLISECONDS);
+    peakHeapUsed.set(stats.peakHeap);
 
-    if (projects.isEmpty()) {
-      logger.info("No projects found, skipping checks");
+    if (stats.projects == 0) {
+      logger.info("No projects due for a check, skipping checks");
       return;
     }
 
-    final List<Release> releasesFound = new ArrayList<>();
+    logger.info("Found a total of {} new releases in {} projects ({} pages, {} ms, "
+        + "peak heap {} MB)", stats.releases, stats.projects, stats.pages, duration,
+        stats.peakHeap / (1024 * 1024));
+  }
+
+  /**
+   * Checks all due projects, one page at a time.
+   */
+  private RunStatistics checkAllDue(long heapAtStart) {
+    final RunStatistics stats = new RunStatistics(heapAtStart);
+    final Date now = new Date();
+    final int pageSize = props.getJobchecker().getPageSize();
+
+    List<Project> page;
+    ProjectCursor cursor = null;
+
+    while (!(page = service.findDue(now, cursor, pageSize)).isEmpty()) {
+      // Capture the position before checking, as checking reschedules the projects
+      cursor = ProjectCursor.of(page.get(page.size() - 1));
+
+      stats.add(page, checkPage(page));
+    }
+
+    return stats;
+  }
+
+  /**
+   * Claims and checks batches of due projects until no unclaimed project is due.
+   */
+  private RunStatistics checkLeased(long heapAtStart) {
+    final RunStatistics stats = new RunStatistics(heapAtStart);
+    final Set<Long> checked = new HashSet<>();
+
+    List<Project> claimed;
+
+    while (!(claimed = leaseService.claimDue()).isEmpty()) {
+      // Projects that could not be rescheduled become due again at once, don't loop on them
+      final List<Project> batch = claimed.stream()
+          .filter(project -> checked.add(project.getId()))
+          .collect(Collectors.toList());
 
-    projects.forEach(project -> registry.forProject(project).ifPresent(host -> {
       try {
-        releasesFound.addAll(host.check(project));
-      } catch (Exception e) {
-        logger.warn("Got exception while checking for updates for {}", project, e);
+        stats.add(batch, checkPage(batch));
+      } finally {
+        leaseService.release(claimed);
       }
-    }));
 
-    logger.info("Found a total of {} new releases", releasesFound.size());
+      if (batch.isEmpty()) {
+        break;
+      }
+    }
+
+    logger.debug("Node {} is done checking claimed projects", leaseService.getNodeId());
+
+    return stats;
+  }
+
+  private int checkPage(List<Project> page) {
+    final List<Release> releasesFound = engine.run(page);
 
-    releasesFound.forEach(notificationService::notify);
+    notificationService.notify(releasesFound);
+
+    return releasesFound.size();
+  }
+
+  private static long heapUsed() {
+    return memory.getHeapMemoryUsage().getUsed();
+  }
+
+  /**
+   * Counters for a single check run.
+   */
+  private static final class RunStatistics {
+    private int pages;
+    private int projects;
+    private int releases;
+    private long peakHeap;
+
+    private RunStatistics(long heapAtStart) {
+      this.peakHeap = heapAtStart;
+    }
+
+    private void add(List<Project> page, int releasesFound) {
+      pages++;
+      projects += page.size();
+      releases += releasesFound;
+      peakHeap = Math.max(peakHeap, heapUsed());
+    }
   }
 }
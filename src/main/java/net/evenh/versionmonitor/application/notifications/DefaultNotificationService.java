@@ -2,49 +2,157 @@ package net.evenh.versionmonitor.application.notifications;
 
 import static java.util.Objects.requireNonNull;
 
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.Executor;
 import net.evenh.versionmonitor.domain.notifications.NotificationProvider;
 import net.evenh.versionmonitor.domain.notifications.NotificationService;
+import net.evenh.versionmonitor.domain.notifications.ReleaseNotification;
 import net.evenh.versionmonitor.domain.projects.Project;
 import net.evenh.versionmonitor.domain.projects.ProjectRepository;
 import net.evenh.versionmonitor.domain.releases.Release;
+import net.evenh.versionmonitor.domain.subscriptions.Subscription;
+import net.evenh.versionmonitor.infrastructure.config.jpa.StatementCounter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
+/**
+ * Delivers notifications of new releases through every provider supporting a subscription.
+ *
+ * <p>Releases carry the project they were found for, so the only lookup is a single query for the
+ * subscriptions of all their projects. The database queries spent per notification are reported
+ * under <code>versionmonitor.notifications.queries</code>, split into preparing the notifications
+ * and delivering them.</p>
+ */
 @Service
 public class DefaultNotificationService implements NotificationService {
   private static final Logger log = LoggerFactory.getLogger(DefaultNotificationService.class);
   private final Set<NotificationProvider> providers;
+  private final Executor executor;
+  private final DistributionSummary prepareQueries;
+  private final DistributionSummary deliverQueries;
 
   @Autowired
   private ProjectRepository projects;
 
+  /**
+   * Creates a notification service delivering through the given providers on the notification
+   * executor.
+   */
   @Autowired
-  public DefaultNotificationService(Set<NotificationProvider> providers) {
+  public DefaultNotificationService(Set<NotificationProvider> providers,
+      @Qualifier("notificationExecutor") Executor executor, MeterRegistry registry) {
     this.providers = providers;
+    this.executor = executor;
+    this.prepareQueries = queries(registry, "prepare");
+    this.deliverQueries = queries(registry, "deliver");
   }
 
   @Override
-  public void notify(Release release) {
+  public void notify(List<Release> releases) {
+    if (releases.isEmpty()) {
+      return;
+    }
+
+    if (providers.isEmpty()) {
+      log.warn("No providers - cannot notify anyone about {} new releases", releases.size());
+      return;
+    }
+
+    final long statementsBefore = StatementCounter.count();
+    final List<ReleaseNotification> notifications = prepare(releases);
+    final double statements = StatementCounter.count() - statementsBefore;
+
+    for (ReleaseNotification notification : notifications) {
+      prepareQueries.record(statements / notifications.size());
+      notify(notification);
+    }
+  }
+
+  @Override
+  public void notify(ReleaseNotification notification) {
     if (providers.isEmpty()) {
       log.warn("No providers - cannot notify anyone about the new release");
       return;
     }
 
-    requireNonNull(release, "Invalid release specified");
+    requireNonNull(notification, "Invalid notification specified");
+
+    notification.getSubscriptions()
+        .forEach(subscription -> providers.stream()
+          .filter(provider -> provider.isSatisfiedBy(subscription))
+          .forEach(provider -> executor.execute(() ->
+            deliver(provider, notification, subscription))));
+  }
+
+  /**
+   * Pairs every release with its project and the subscriptions of the project.
+   */
+  private List<ReleaseNotification> prepare(List<Release> releases) {
+    final Map<Long, Set<Subscription>> subscriptions = new HashMap<>();
+    final Set<Long> projectIds = new HashSet<>();
+
+    releases.stream()
+        .map(Release::getProject)
+        .filter(project -> project != null && project.getId() != null)
+        .forEach(project -> projectIds.add(project.getId()));
+
+    if (!projectIds.isEmpty()) {
+      for (Object[] row : projects.findSubscriptions(projectIds)) {
+        subscriptions.computeIfAbsent((Long) row[0], id -> new HashSet<>())
+            .add((Subscription) row[1]);
+      }
+    }
+
+    final List<ReleaseNotification> notifications = new ArrayList<>();
+
+    for (Release release : releases) {
+      final Project project = release.getProject();
+
+      if (project != null && project.getId() != null) {
+        notifications.add(new ReleaseNotification(project, release,
+            subscriptions.getOrDefault(project.getId(), Collections.emptySet())));
+        continue;
+      }
 
-    Optional<Project> project  = projects.findByRelease(release);
+      // Releases should always be linked to the project they were found for
+      final Optional<Project> found = projects.findByRelease(release);
 
-    if (project.isPresent()) {
-      project.get().getSubscriptions()
-          .forEach(subscription -> providers.stream()
-            .filter(provider -> provider.isSatisfiedBy(subscription))
-            .forEach(provider -> provider.sendNotification(release, subscription)));
-    } else {
-      log.warn("Found a dangling release which is missing project, {}", release);
+      if (found.isPresent()) {
+        notifications.add(new ReleaseNotification(found.get(), release,
+            found.get().getSubscriptions()));
+      } else {
+        log.warn("Found a dangling release which is missing project, {}", release);
+      }
     }
+
+    return notifications;
+  }
+
+  private void deliver(NotificationProvider provider, ReleaseNotification notification,
+      Subscription subscription) {
+    final long statementsBefore = StatementCounter.count();
+
+    provider.sendNotification(notification, subscription);
+
+    deliverQueries.record(StatementCounter.count() - statementsBefore);
+  }
+
+  private static DistributionSummary queries(MeterRegistry registry, String phase) {
+    return DistributionSummary.builder("versionmonitor.notifications.queries")
+      .description("Database queries per notification")
+      .tag("phase", phase)
+      .register(registry);
   }
 }
@@ -1,41 +1,52 @@
 package net.evenh.versionmonitor.application.subscriptions;
 
+import com.google.common.cache.Cache;
 import java.util.List;
 import java.util.Optional;
 import net.evenh.versionmonitor.domain.subscriptions.Subscription;
 import net.evenh.versionmonitor.domain.subscriptions.SubscriptionRepository;
+import net.evenh.versionmonitor.infrastructure.config.LocalCaches;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 @Service
 public class SubscriptionService {
   private final SubscriptionRepository repository;
+  private final Cache<Long, Subscription> subscriptionsById;
 
   @Autowired
-  public SubscriptionService(SubscriptionRepository repository) {
+  public SubscriptionService(SubscriptionRepository repository, LocalCaches caches) {
     this.repository = repository;
+    this.subscriptionsById = caches.create("subscriptions.id");
   }
 
 
   /**
-   * Finds all subscriptions persisted in the database.
+   * Finds a page of subscriptions, ordered by id.
+   *
+   * @param after The id of the last subscription of the previous page, or null for the first page.
+   * @param size The maximum number of subscriptions to return.
    */
-  public List<Subscription> findAll() {
-    return repository.findAll();
+  public List<Subscription> findPage(Long after, int size) {
+    return repository.findByIdGreaterThanOrderByIdAsc(after != null ? after : 0L,
+        PageRequest.of(0, size));
   }
 
   /**
    * Finds a subscription by id.
    */
   public Optional<Subscription> findOne(Long id) {
-    return repository.findById(id);
+    return LocalCaches.get(subscriptionsById, id, () -> repository.findById(id));
   }
 
   /**
    * Persists a subscription.
    */
   public Subscription save(Subscription subscription) {
-    return repository.saveAndFlush(subscription);
+    final Subscription saved = repository.saveAndFlush(subscription);
+    subscriptionsById.invalidate(saved.getId());
+    return saved;
   }
 
   /**
@@ -43,5 +54,6 @@ public class SubscriptionService {
    */
   public void delete(Subscription subscription) {
     repository.delete(subscription);
+    subscriptionsById.invalidate(subscription.getId());
   }
 }
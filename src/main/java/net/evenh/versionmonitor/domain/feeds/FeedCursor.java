@@ -0,0 +1,61 @@
+package net.evenh.versionmonitor.domain.feeds;
+
+import java.util.Date;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+
+/**
+ * The position of a change feed that has been followed up to.
+ *
+ * <p>Cursors are persisted, so following a feed resumes where it left off across restarts.</p>
+ */
+@Entity
+@Table(name = "feed_cursor")
+public class FeedCursor {
+  @Id
+  private String name;
+
+  /**
+   * The opaque sequence of the last change processed.
+   */
+  private String since;
+
+  @Temporal(TemporalType.TIMESTAMP)
+  private Date updatedAt;
+
+  protected FeedCursor() {
+  }
+
+  /**
+   * Creates a cursor positioned at the given sequence of a feed.
+   */
+  public FeedCursor(String name, String since) {
+    this.name = name;
+    this.since = since;
+    this.updatedAt = new Date();
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public String getSince() {
+    return since;
+  }
+
+  public Date getUpdatedAt() {
+    return updatedAt;
+  }
+
+  @Override
+  public String toString() {
+    return "FeedCursor{"
+      + "name='" + name + '\''
+      + ", since='" + since + '\''
+      + ", updatedAt=" + updatedAt
+      + '}';
+  }
+}
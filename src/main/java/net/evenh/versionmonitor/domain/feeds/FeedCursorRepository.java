@@ -0,0 +1,11 @@
+package net.evenh.versionmonitor.domain.feeds;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * A repository for persisting the positions of change feeds.
+ */
+@Repository
+public interface FeedCursorRepository extends JpaRepository<FeedCursor, String> {
+}
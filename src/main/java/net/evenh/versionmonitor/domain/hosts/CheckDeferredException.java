@@ -0,0 +1,24 @@
+package net.evenh.versionmonitor.domain.hosts;
+
+import java.util.Date;
+
+/**
+ * Thrown when a host cannot check a project right now, for instance because its rate limit is
+ * exhausted. The project was not checked, so it is neither rescheduled by its cadence nor counted
+ * as failing, but checked again once the host allows it.
+ */
+public class CheckDeferredException extends Exception {
+  private final Date retryAt;
+
+  public CheckDeferredException(String message, Date retryAt) {
+    super(message);
+    this.retryAt = retryAt;
+  }
+
+  /**
+   * When the project may be checked again.
+   */
+  public Date getRetryAt() {
+    return retryAt;
+  }
+}
@@ -1,5 +1,7 @@
 package net.evenh.versionmonitor.domain.hosts;
 
+import java.time.Duration;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import net.evenh.versionmonitor.domain.projects.Project;
@@ -46,6 +48,28 @@ public interface HostService {
    * Checks for new releases and updates the database if new releases is found.
    *
    * @return The new releases found.
+   * @throws CheckDeferredException Thrown if the project could not be checked yet, and should be
+   *                                checked again at the given time.
    */
   List<Release> check(final Project project) throws Exception;
+
+  /**
+   * Called before a batch of projects is checked, allowing hosts that can fetch data for many
+   * projects at once to do so. Does nothing by default.
+   *
+   * @param projects The projects about to be checked.
+   */
+  default void prefetch(final Collection<Project> projects) {
+  }
+
+  /**
+   * The shortest time to wait before checking a project again, regardless of its release cadence.
+   * Hosts that are told about new releases by other means may use it to poll less often.
+   *
+   * @param project A project of this host.
+   * @return The minimum check interval, which is zero by default.
+   */
+  default Duration minimumCheckInterval(final Project project) {
+    return Duration.ZERO;
+  }
 }
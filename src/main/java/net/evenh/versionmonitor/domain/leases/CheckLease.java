@@ -0,0 +1,47 @@
+package net.evenh.versionmonitor.domain.leases;
+
+import java.util.Date;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * A time limited claim on checking a project, held by a single node.
+ *
+ * <p>Leases are claimed and released through native queries in {@link CheckLeaseRepository}. The
+ * entity mainly exists to describe the table.</p>
+ */
+@Entity
+@Table(name = "check_lease")
+public class CheckLease {
+  @Id
+  private Long projectId;
+
+  @Column(nullable = false)
+  private String owner;
+
+  @Column(nullable = false)
+  private Date expiresAt;
+
+  public Long getProjectId() {
+    return projectId;
+  }
+
+  public String getOwner() {
+    return owner;
+  }
+
+  public Date getExpiresAt() {
+    return expiresAt;
+  }
+
+  @Override
+  public String toString() {
+    return "CheckLease{"
+      + "projectId='" + projectId + '\''
+      + ", owner='" + owner + '\''
+      + ", expiresAt='" + expiresAt + '\''
+      + '}';
+  }
+}
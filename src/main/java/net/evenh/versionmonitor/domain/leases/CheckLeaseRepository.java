@@ -0,0 +1,58 @@
+package net.evenh.versionmonitor.domain.leases;
+
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * A repository for claiming and releasing check leases.
+ */
+@Repository
+public interface CheckLeaseRepository extends JpaRepository<CheckLease, Long> {
+  /**
+   * Claims leases on a batch of due projects that are not leased by anyone else.
+   *
+   * <p>Due projects are locked with <code>SKIP LOCKED</code>, so concurrent nodes claim disjoint
+   * batches without waiting on each other. Expired leases are taken over, while the conflict
+   * clause guarantees that a live lease is never stolen.</p>
+   *
+   * @param owner The node claiming the leases.
+   * @param leaseSeconds How long the leases are valid.
+   * @param batchSize The maximum number of leases to claim.
+   * @return The ids of the projects now leased by the owner.
+   */
+  @Transactional
+  @Query(value = "with due as ("
+      + "  select p.id from {h-schema}project p"
+      + "  where p.next_check_at <= now()"
+      + "    and not exists (select 1 from {h-schema}check_lease l"
+      + "      where l.project_id = p.id and l.expires_at > now())"
+      + "  order by p.next_check_at, p.id"
+      + "  limit :batchSize"
+      + "  for update of p skip locked"
+      + ") "
+      + "insert into {h-schema}check_lease as lease (project_id, owner, expires_at) "
+      + "select id, :owner, now() + :leaseSeconds * interval '1 second' from due "
+      + "on conflict (project_id) do update"
+      + "  set owner = excluded.owner, expires_at = excluded.expires_at"
+      + "  where lease.expires_at <= now() "
+      + "returning lease.project_id", nativeQuery = true)
+  List<Number> claimDue(@Param(value = "owner") String owner,
+      @Param(value = "leaseSeconds") int leaseSeconds,
+      @Param(value = "batchSize") int batchSize);
+
+  /**
+   * Releases leases held by the owner.
+   */
+  @Transactional
+  @Modifying
+  @Query(value = "delete from {h-schema}check_lease "
+      + "where owner = :owner and project_id in (:projectIds)", nativeQuery = true)
+  int release(@Param(value = "owner") String owner,
+      @Param(value = "projectIds") Collection<Long> projectIds);
+}
@@ -0,0 +1,77 @@
+package net.evenh.versionmonitor.domain.leases;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import net.evenh.versionmonitor.domain.projects.Project;
+import net.evenh.versionmonitor.domain.projects.ProjectRepository;
+import net.evenh.versionmonitor.infrastructure.config.VersionmonitorConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Distributes release checks between nodes through leases in the database.
+ */
+@Service
+public class CheckLeaseService {
+  private static final Logger log = LoggerFactory.getLogger(CheckLeaseService.class);
+
+  private final CheckLeaseRepository leases;
+  private final ProjectRepository projects;
+  private final VersionmonitorConfiguration.Jobchecker.Leases props;
+  private final String nodeId;
+
+  /**
+   * Creates a lease service identifying this node by the configured node id, or a random one.
+   */
+  @Autowired
+  public CheckLeaseService(CheckLeaseRepository leases, ProjectRepository projects,
+      VersionmonitorConfiguration props) {
+    this.leases = leases;
+    this.projects = projects;
+    this.props = props.getJobchecker().getLeases();
+    this.nodeId = this.props.getNodeId() != null
+        ? this.props.getNodeId() : UUID.randomUUID().toString();
+
+    log.info("Using node id {} for check leases", nodeId);
+  }
+
+  /**
+   * Claims a batch of due projects for this node.
+   *
+   * @return The claimed projects, or an empty list if no unclaimed project is due.
+   */
+  public List<Project> claimDue() {
+    final List<Long> ids = leases.claimDue(nodeId, props.getDurationSeconds(), props.getBatchSize())
+        .stream()
+        .map(Number::longValue)
+        .collect(Collectors.toList());
+
+    if (ids.isEmpty()) {
+      return Collections.emptyList();
+    }
+
+    log.debug("Claimed leases on {} projects", ids.size());
+
+    return projects.findAllById(ids);
+  }
+
+  /**
+   * Releases the leases this node holds on the given projects.
+   */
+  public void release(Collection<Project> claimed) {
+    if (claimed.isEmpty()) {
+      return;
+    }
+
+    leases.release(nodeId, claimed.stream().map(Project::getId).collect(Collectors.toList()));
+  }
+
+  public String getNodeId() {
+    return nodeId;
+  }
+}
@@ -9,8 +9,11 @@ import net.evenh.versionmonitor.domain.subscriptions.Subscription;
 public interface NotificationProvider {
   /**
    * Publish a new {@link Release} through the provider, given a valid {@link Subscription}.
+   *
+   * <p>Everything needed to announce the release is part of the notification, so providers must
+   * not look up the project or release again.</p>
    */
-  boolean sendNotification(Release release, Subscription subscription);
+  boolean sendNotification(ReleaseNotification notification, Subscription subscription);
 
   /**
    * Determines whether this provider supports a given {@link Subscription}.
@@ -1,5 +1,6 @@
 package net.evenh.versionmonitor.domain.notifications;
 
+import java.util.List;
 import net.evenh.versionmonitor.domain.releases.Release;
 
 /**
@@ -7,7 +8,15 @@ import net.evenh.versionmonitor.domain.releases.Release;
  */
 public interface NotificationService {
   /**
-   * Notify users through the supported providers of a new release.
+   * Notify users through the supported providers of new releases.
+   *
+   * <p>The subscriptions of the projects of all the releases are looked up together, so the cost
+   * does not grow with the number of releases.</p>
    */
-  void notify(Release release);
+  void notify(List<Release> releases);
+
+  /**
+   * Notify the subscriptions of a notification through the supported providers.
+   */
+  void notify(ReleaseNotification notification);
 }
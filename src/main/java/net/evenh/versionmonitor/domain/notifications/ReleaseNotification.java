@@ -0,0 +1,49 @@
+package net.evenh.versionmonitor.domain.notifications;
+
+import java.util.Collections;
+import java.util.Set;
+import net.evenh.versionmonitor.domain.projects.Project;
+import net.evenh.versionmonitor.domain.releases.Release;
+import net.evenh.versionmonitor.domain.subscriptions.Subscription;
+
+/**
+ * A new release along with everything needed to announce it.
+ *
+ * <p>The project and subscriptions are resolved once, when the notification is created, so
+ * providers can deliver it without looking anything up.</p>
+ */
+public final class ReleaseNotification {
+  private final Project project;
+  private final Release release;
+  private final Set<Subscription> subscriptions;
+
+  /**
+   * Creates a notification of a release of a project, to the given subscriptions.
+   */
+  public ReleaseNotification(Project project, Release release, Set<Subscription> subscriptions) {
+    this.project = project;
+    this.release = release;
+    this.subscriptions = Collections.unmodifiableSet(subscriptions);
+  }
+
+  public Project getProject() {
+    return project;
+  }
+
+  public Release getRelease() {
+    return release;
+  }
+
+  public Set<Subscription> getSubscriptions() {
+    return subscriptions;
+  }
+
+  @Override
+  public String toString() {
+    return "ReleaseNotification{"
+      + "project=" + project
+      + ", release=" + release
+      + ", subscriptions=" + subscriptions.size()
+      + '}';
+  }
+}
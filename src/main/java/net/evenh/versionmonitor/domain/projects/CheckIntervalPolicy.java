@@ -0,0 +1,103 @@
+package net.evenh.versionmonitor.domain.projects;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import net.evenh.versionmonitor.infrastructure.config.VersionmonitorConfiguration;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Derives how often a project should be checked from its observed release cadence.
+ *
+ * <p>The expected time between releases is the median gap between the most recent releases, or
+ * the time since the latest release if that is longer (the project has gone quiet). A fraction of
+ * that is used as check interval, clamped to the configured bounds.</p>
+ */
+@Component
+public class CheckIntervalPolicy {
+  private final VersionmonitorConfiguration.Jobchecker props;
+
+  @Autowired
+  public CheckIntervalPolicy(VersionmonitorConfiguration props) {
+    this.props = props.getJobchecker();
+  }
+
+  /**
+   * Calculates the check interval for a project.
+   *
+   * @param releaseDates The dates of the most recent releases, in any order.
+   * @param now The current time.
+   * @return The time to wait before checking the project again.
+   */
+  public Duration intervalFor(List<Date> releaseDates, Instant now) {
+    final Duration min = Duration.ofMinutes(props.getMinIntervalMinutes());
+    final Duration max = Duration.ofMinutes(props.getMaxIntervalMinutes());
+
+    // Releases with unknown dates are stored with the epoch as timestamp
+    final List<Instant> dates = releaseDates.stream()
+        .filter(date -> date != null && date.getTime() > 0)
+        .map(Date::toInstant)
+        .sorted(Collections.reverseOrder())
+        .collect(Collectors.toList());
+
+    if (dates.isEmpty()) {
+      return max;
+    }
+
+    final Duration idle = Duration.between(dates.get(0), now);
+    final Duration expected = medianGap(dates).filter(gap -> gap.compareTo(idle) > 0).orElse(idle);
+    final Duration interval = Duration.ofMillis(
+        (long) (expected.toMillis() * props.getCadenceFraction()));
+
+    if (interval.compareTo(min) < 0) {
+      return min;
+    }
+
+    return interval.compareTo(max) > 0 ? max : interval;
+  }
+
+  /**
+   * Calculates how long to wait before retrying a project whose checks keep failing.
+   *
+   * <p>The wait doubles with every failure in a row, up to the configured maximum. Projects that
+   * were not found on their host start from a longer wait, as they are unlikely to come back
+   * soon.</p>
+   *
+   * @param failures The number of failed checks in a row, at least one.
+   * @param notFound Whether the latest check found that the project does not exist.
+   * @return The time to wait before checking the project again.
+   */
+  public Duration backoffFor(int failures, boolean notFound) {
+    final Duration base = Duration.ofMinutes(notFound
+        ? props.getNotFoundBackoffMinutes()
+        : props.getFailureBackoffMinutes());
+    final Duration max = Duration.ofMinutes(props.getMaxBackoffMinutes());
+
+    // Beyond 2^30 the maximum has long been reached, and the shift would overflow
+    final Duration backoff = base.multipliedBy(1L << Math.min(Math.max(failures - 1, 0), 30));
+
+    return backoff.compareTo(max) > 0 || backoff.isNegative() ? max : backoff;
+  }
+
+  private Optional<Duration> medianGap(List<Instant> dates) {
+    final List<Duration> gaps = new ArrayList<>();
+
+    for (int i = 1; i < dates.size(); i++) {
+      gaps.add(Duration.between(dates.get(i), dates.get(i - 1)));
+    }
+
+    if (gaps.isEmpty()) {
+      return Optional.empty();
+    }
+
+    Collections.sort(gaps);
+
+    return Optional.of(gaps.get(gaps.size() / 2));
+  }
+}
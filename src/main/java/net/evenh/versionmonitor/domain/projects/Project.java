@@ -1,9 +1,12 @@
 package net.evenh.versionmonitor.domain.projects;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonView;
+import java.util.Date;
 import java.util.List;
 import java.util.Set;
 import javax.persistence.CascadeType;
+import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
@@ -11,7 +14,6 @@ import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.Inheritance;
 import javax.persistence.InheritanceType;
-import javax.persistence.JoinColumn;
 import javax.persistence.ManyToMany;
 import javax.persistence.OneToMany;
 import javax.validation.constraints.NotNull;
@@ -23,6 +25,11 @@ import org.slf4j.LoggerFactory;
 
 /**
  * The project class specifies a default software project found on a host.
+ *
+ * <p>The releases and subscriptions are loaded lazily. Code that needs them must load the project
+ * with a fetch plan that includes them, as projects are detached once they leave the repositories.
+ * The releases are a bag, so they are never fetched in the same query as the subscriptions, which
+ * would return every release once per subscription.</p>
  */
 @Entity
 @Inheritance(strategy = InheritanceType.JOINED)
@@ -55,15 +62,18 @@ public abstract class Project {
    * <p>Can be a URL or anything a String can hold.
    */
   @NotNull
+  @Column(unique = true)
   @JsonView(View.Summary.class)
   private String identifier;
 
   /**
    * Releases for this software project.
+   *
+   * <p>Never serialized, as a project may have thousands of releases. They are listed page by page
+   * through <code>/api/projects/{id}/releases</code> instead.</p>
    */
-  @OneToMany(cascade = CascadeType.ALL, fetch = FetchType.EAGER)
-  @JoinColumn(name = "project_id")
-  @JsonView(View.Detail.class)
+  @OneToMany(mappedBy = "project", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+  @JsonIgnore
   private List<Release> releases;
 
   /**
@@ -71,11 +81,43 @@ public abstract class Project {
    */
   @ManyToMany(
       cascade = {CascadeType.PERSIST, CascadeType.REFRESH, CascadeType.DETACH},
-      fetch = FetchType.EAGER
+      fetch = FetchType.LAZY
       )
   @JsonView(View.Detail.class)
   private Set<Subscription> subscriptions;
 
+  /**
+   * When this project is due for its next release check.
+   */
+  @Column(nullable = false)
+  @JsonView(View.Detail.class)
+  private Date nextCheckAt = new Date();
+
+  /**
+   * The interval between release checks, derived from the release cadence of the project.
+   */
+  @JsonView(View.Detail.class)
+  private Long checkIntervalSeconds;
+
+  /**
+   * The number of release checks in a row that have failed.
+   */
+  @Column(nullable = false)
+  @JsonView(View.Detail.class)
+  private int failureCount;
+
+  /**
+   * When the latest release check failed.
+   */
+  @JsonView(View.Detail.class)
+  private Date lastFailureAt;
+
+  /**
+   * Why the latest release check failed, if the project is currently failing.
+   */
+  @JsonView(View.Detail.class)
+  private String failureReason;
+
   public Project() {
   }
 
@@ -115,11 +157,19 @@ public abstract class Project {
     return releases;
   }
 
+  /**
+   * Replaces the releases of this project, and links each release back to it.
+   */
   public void setReleases(List<Release> releases) {
+    releases.forEach(release -> release.setProject(this));
     this.releases = releases;
   }
 
+  /**
+   * Adds a release to this project, and links the release back to it.
+   */
   public void addRelease(Release release) {
+    release.setProject(this);
     releases.add(release);
   }
 
@@ -159,6 +209,46 @@ public abstract class Project {
     return subscriptions;
   }
 
+  public Date getNextCheckAt() {
+    return nextCheckAt;
+  }
+
+  public void setNextCheckAt(Date nextCheckAt) {
+    this.nextCheckAt = nextCheckAt;
+  }
+
+  public Long getCheckIntervalSeconds() {
+    return checkIntervalSeconds;
+  }
+
+  public void setCheckIntervalSeconds(Long checkIntervalSeconds) {
+    this.checkIntervalSeconds = checkIntervalSeconds;
+  }
+
+  public int getFailureCount() {
+    return failureCount;
+  }
+
+  public void setFailureCount(int failureCount) {
+    this.failureCount = failureCount;
+  }
+
+  public Date getLastFailureAt() {
+    return lastFailureAt;
+  }
+
+  public void setLastFailureAt(Date lastFailureAt) {
+    this.lastFailureAt = lastFailureAt;
+  }
+
+  public String getFailureReason() {
+    return failureReason;
+  }
+
+  public void setFailureReason(String failureReason) {
+    this.failureReason = failureReason;
+  }
+
   /**
    * Returns the URL of this project on a specific host.
    */
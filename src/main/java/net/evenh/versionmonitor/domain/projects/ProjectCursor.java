@@ -0,0 +1,43 @@
+package net.evenh.versionmonitor.domain.projects;
+
+import java.util.Date;
+
+/**
+ * The position of a project in the queue of due projects, used for keyset pagination.
+ *
+ * <p>The position is copied from the project, as checking a project moves its next check time.</p>
+ */
+public final class ProjectCursor {
+  static final ProjectCursor FIRST = new ProjectCursor(new Date(0), 0L);
+
+  private final Date nextCheckAt;
+  private final Long id;
+
+  private ProjectCursor(Date nextCheckAt, Long id) {
+    this.nextCheckAt = nextCheckAt;
+    this.id = id;
+  }
+
+  /**
+   * Captures the current queue position of a project.
+   */
+  public static ProjectCursor of(Project project) {
+    return new ProjectCursor(project.getNextCheckAt(), project.getId());
+  }
+
+  public Date getNextCheckAt() {
+    return nextCheckAt;
+  }
+
+  public Long getId() {
+    return id;
+  }
+
+  @Override
+  public String toString() {
+    return "ProjectCursor{"
+      + "nextCheckAt='" + nextCheckAt + '\''
+      + ", id='" + id + '\''
+      + '}';
+  }
+}
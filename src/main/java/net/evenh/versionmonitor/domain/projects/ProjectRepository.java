@@ -1,11 +1,18 @@
 package net.evenh.versionmonitor.domain.projects;
 
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
 import java.util.Optional;
 import net.evenh.versionmonitor.domain.releases.Release;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * A repository for persisting various software projects.
@@ -18,12 +25,133 @@ public interface ProjectRepository extends JpaRepository<Project, Long> {
   Optional<Project> findByIdentifier(String identifier);
 
   /**
-   * Finds a project by supplying a release.
+   * Finds the summary of a project, without loading the project.
+   */
+  @Query("select new net.evenh.versionmonitor.domain.projects.ProjectSummary("
+      + "p.id, p.name, p.description, p.identifier) from Project p where p.id = :id")
+  Optional<ProjectSummary> findSummaryById(@Param(value = "id") Long id);
+
+  /**
+   * Finds the summary of a project by identifier, without loading the project.
+   */
+  @Query("select new net.evenh.versionmonitor.domain.projects.ProjectSummary("
+      + "p.id, p.name, p.description, p.identifier) from Project p "
+      + "where p.identifier = :identifier")
+  Optional<ProjectSummary> findSummaryByIdentifier(
+      @Param(value = "identifier") String identifier);
+
+  /**
+   * Finds a project with its subscriptions, but not its releases.
+   */
+  @EntityGraph(attributePaths = "subscriptions")
+  Optional<Project> findWithSubscriptionsById(Long id);
+
+  /**
+   * Finds a page of project summaries ordered by id, without loading any releases or
+   * subscriptions.
+   *
+   * @param after The id of the last project of the previous page.
+   * @param pageable Limits the page size.
+   */
+  @Query("select new net.evenh.versionmonitor.domain.projects.ProjectSummary("
+      + "p.id, p.name, p.description, p.identifier) from Project p where p.id > :after "
+      + "order by p.id")
+  List<ProjectSummary> findSummaries(@Param(value = "after") Long after, Pageable pageable);
+
+  /**
+   * Finds a project by supplying a release, along with the subscriptions to notify.
    *
    * @param release A <code>Release</code> object.
    * @return An Optional<code>Project</code> for describing whether a project was found or
    *         not.
    */
-  @Query("select p from Project p inner join p.releases r where r = :release")
+  @Query("select distinct p from Project p left join fetch p.subscriptions "
+      + "inner join p.releases r where r = :release")
   Optional<Project> findByRelease(@Param(value = "release") Release release);
+
+  /**
+   * Finds a page of projects due for a release check, the most overdue first.
+   *
+   * <p>Pages are addressed by the (next check, id) position of the last project of the previous
+   * page, so fetching a page never has to skip over the ones before it.</p>
+   *
+   * @param now The time projects must be due by.
+   * @param afterDue The next check time of the last project of the previous page.
+   * @param afterId The id of the last project of the previous page.
+   * @param pageable Limits the page size.
+   */
+  @Query("select p from Project p where p.nextCheckAt <= :now "
+      + "and (p.nextCheckAt > :afterDue or (p.nextCheckAt = :afterDue and p.id > :afterId)) "
+      + "order by p.nextCheckAt, p.id")
+  List<Project> findDue(@Param(value = "now") Date now,
+      @Param(value = "afterDue") Date afterDue,
+      @Param(value = "afterId") Long afterId,
+      Pageable pageable);
+
+  /**
+   * Finds the subscriptions of projects.
+   *
+   * @param ids The project ids.
+   * @return Pairs of project id and subscription.
+   */
+  @Query("select p.id, s from Project p inner join p.subscriptions s where p.id in :ids")
+  List<Object[]> findSubscriptions(@Param(value = "ids") Collection<Long> ids);
+
+  /**
+   * Finds the release dates of a project, newest first.
+   *
+   * @param id The project id.
+   * @param pageable Limits the number of dates returned.
+   */
+  @Query("select r.releasedAt from Project p inner join p.releases r where p.id = :id "
+      + "order by r.releasedAt desc")
+  List<Date> findReleaseDates(@Param(value = "id") Long id, Pageable pageable);
+
+  /**
+   * Updates when a project is due for its next check after a successful check, without loading or
+   * merging the project.
+   */
+  @Transactional
+  @Modifying
+  @Query(value = "update {h-schema}project set next_check_at = :nextCheckAt, "
+      + "check_interval_seconds = :interval, failure_count = 0, failure_reason = null "
+      + "where id = :id", nativeQuery = true)
+  int updateSchedule(@Param(value = "id") Long id,
+      @Param(value = "nextCheckAt") Date nextCheckAt,
+      @Param(value = "interval") Long intervalSeconds);
+
+  /**
+   * Updates when a project is due for its next check only, without loading or merging the project.
+   */
+  @Transactional
+  @Modifying
+  @Query(value = "update {h-schema}project set next_check_at = :nextCheckAt where id = :id",
+      nativeQuery = true)
+  int updateNextCheckAt(@Param(value = "id") Long id,
+      @Param(value = "nextCheckAt") Date nextCheckAt);
+
+  /**
+   * Records a failed check of a project and when to retry it, without loading or merging the
+   * project.
+   */
+  @Transactional
+  @Modifying
+  @Query(value = "update {h-schema}project set next_check_at = :nextCheckAt, "
+      + "failure_count = :failureCount, last_failure_at = :failedAt, failure_reason = :reason "
+      + "where id = :id", nativeQuery = true)
+  int updateFailure(@Param(value = "id") Long id,
+      @Param(value = "nextCheckAt") Date nextCheckAt,
+      @Param(value = "failureCount") int failureCount,
+      @Param(value = "failedAt") Date failedAt,
+      @Param(value = "reason") String reason);
+
+  /**
+   * Finds projects whose latest checks have failed, the most failing first.
+   *
+   * @param minFailures The minimum number of failed checks in a row.
+   * @param pageable Limits the number of projects returned.
+   */
+  @Query("select p from Project p where p.failureCount >= :minFailures "
+      + "order by p.failureCount desc, p.id")
+  List<Project> findFailing(@Param(value = "minFailures") int minFailures, Pageable pageable);
 }
@@ -1,49 +1,198 @@
 package net.evenh.versionmonitor.domain.projects;
 
+import com.google.common.cache.Cache;
+import java.io.FileNotFoundException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import net.evenh.versionmonitor.domain.hosts.HostRegistry;
 import net.evenh.versionmonitor.domain.releases.Release;
+import net.evenh.versionmonitor.infrastructure.config.LocalCaches;
+import net.evenh.versionmonitor.infrastructure.config.VersionmonitorConfiguration;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+/**
+ * Finds, schedules and stores projects.
+ *
+ * <p>Project summaries are cached by id and by identifier, as existence checks and summaries are
+ * read far more often than projects are added or removed. Only the scalar fields are cached.
+ * Releases and subscriptions change outside this service, through checks, webhooks and
+ * reconciliation, so projects with releases or subscriptions are always read from the
+ * database.</p>
+ */
 @Service
 public class ProjectService {
   @Autowired
   private ProjectRepository repository;
 
+  @Autowired
+  private CheckIntervalPolicy intervalPolicy;
+
+  @Autowired
+  private HostRegistry registry;
+
+  @Autowired
+  private VersionmonitorConfiguration props;
+
+  private Cache<Long, ProjectSummary> summariesById;
+  private Cache<String, ProjectSummary> summariesByIdentifier;
+
+  @Autowired
+  void createCaches(LocalCaches caches) {
+    summariesById = caches.create("projects.id");
+    summariesByIdentifier = caches.create("projects.identifier");
+  }
+
+  /**
+   * Finds a page of project summaries, ordered by id.
+   *
+   * @param after The id of the last project of the previous page, or null for the first page.
+   * @param size The maximum number of projects to return.
+   */
+  public List<ProjectSummary> findSummaries(Long after, int size) {
+    return repository.findSummaries(after != null ? after : 0L, PageRequest.of(0, size));
+  }
+
+  /**
+   * Finds a page of projects due for a release check, the most overdue first.
+   *
+   * @param now The time projects must be due by.
+   * @param after The last project of the previous page, or null for the first page.
+   * @param size The maximum number of projects to return.
+   */
+  public List<Project> findDue(Date now, ProjectCursor after, int size) {
+    final ProjectCursor cursor = after != null ? after : ProjectCursor.FIRST;
+
+    return repository.findDue(now, cursor.getNextCheckAt(), cursor.getId(),
+        PageRequest.of(0, size));
+  }
+
+  /**
+   * Schedules the next release check of a project based on its release cadence, but no sooner than
+   * its host allows.
+   */
+  public void reschedule(Project project) {
+    final Instant now = Instant.now();
+    final List<Date> releaseDates = repository.findReleaseDates(project.getId(),
+        PageRequest.of(0, props.getJobchecker().getCadenceSampleSize()));
+    final Duration cadence = intervalPolicy.intervalFor(releaseDates, now);
+    final Duration minimum = registry.forProject(project)
+        .map(host -> host.minimumCheckInterval(project))
+        .orElse(Duration.ZERO);
+    final Duration interval = cadence.compareTo(minimum) < 0 ? minimum : cadence;
+
+    project.setNextCheckAt(Date.from(now.plus(interval)));
+    project.setCheckIntervalSeconds(interval.getSeconds());
+    project.setFailureCount(0);
+    project.setFailureReason(null);
+
+    repository.updateSchedule(project.getId(), project.getNextCheckAt(),
+        project.getCheckIntervalSeconds());
+  }
+
   /**
-   * Finds all projects persisted in the database.
+   * Postpones the check of a project its host could not check yet, keeping its check interval and
+   * failure count.
+   *
+   * @param project The project that was not checked.
+   * @param retryAt When the project may be checked again.
    */
-  public List<Project> findAll() {
-    return repository.findAll();
+  public void defer(Project project, Date retryAt) {
+    project.setNextCheckAt(retryAt);
+
+    repository.updateNextCheckAt(project.getId(), retryAt);
   }
 
   /**
-   * Finds a project by id.
+   * Records a failed check of a project, and backs off its next check exponentially.
+   *
+   * @param project The project that failed.
+   * @param cause Why the check failed. A {@link FileNotFoundException} means the project no longer
+   *              exists on its host, which is retried less often.
+   * @return The number of failed checks in a row.
    */
-  public Optional<Project> findOne(Long id) {
-    return repository.findById(id);
+  public int recordFailure(Project project, Exception cause) {
+    final Date now = new Date();
+    final int failures = project.getFailureCount() + 1;
+    final Duration backoff =
+        intervalPolicy.backoffFor(failures, cause instanceof FileNotFoundException);
+    final String reason = cause.getClass().getSimpleName()
+        + (cause.getMessage() != null ? ": " + cause.getMessage() : "");
+
+    project.setNextCheckAt(Date.from(now.toInstant().plus(backoff)));
+    project.setFailureCount(failures);
+    project.setLastFailureAt(now);
+    project.setFailureReason(reason.length() > 1000 ? reason.substring(0, 1000) : reason);
+
+    repository.updateFailure(project.getId(), project.getNextCheckAt(), failures, now,
+        project.getFailureReason());
+
+    return failures;
+  }
+
+  /**
+   * Finds projects whose latest checks have failed, the most failing first.
+   *
+   * @param minFailures The minimum number of failed checks in a row.
+   * @param size The maximum number of projects to return.
+   */
+  public List<Project> findFailing(int minFailures, int size) {
+    return repository.findFailing(minFailures, PageRequest.of(0, size));
+  }
+
+  /**
+   * Finds the summary of a project by id.
+   */
+  public Optional<ProjectSummary> findSummary(Long id) {
+    return LocalCaches.get(summariesById, id, () -> repository.findSummaryById(id));
+  }
+
+  /**
+   * Finds a project by id, with its subscriptions but not its releases.
+   */
+  public Optional<Project> findWithSubscriptions(Long id) {
+    return repository.findWithSubscriptionsById(id);
+  }
+
+  /**
+   * Checks if a project with the given id exists.
+   */
+  public boolean exists(Long id) {
+    return findSummary(id).isPresent();
   }
 
   /**
    * Checks if a project exists.
    */
   public boolean doesExist(String identifier) {
-    return repository.findByIdentifier(identifier).isPresent();
+    return LocalCaches.get(summariesByIdentifier, identifier,
+        () -> repository.findSummaryByIdentifier(identifier)).isPresent();
   }
 
   /**
    * Persists a project to database.
    */
   public Project persist(Project project) {
-    return repository.saveAndFlush(project);
+    final Project saved = repository.saveAndFlush(project);
+    evict(saved);
+    return saved;
   }
 
   /**
-   * Deletes a project.
+   * Deletes a project and its releases.
+   *
+   * <p>The project is loaded again within the transaction, so the releases removed along with it
+   * are the ones stored by then, however long ago the given project was read.</p>
    */
+  @Transactional
   public void delete(Project project) {
-    repository.delete(project);
+    repository.findById(project.getId()).ifPresent(repository::delete);
+    evict(project);
   }
 
   /**
@@ -52,4 +201,17 @@ public class ProjectService {
   public Optional<Project> findByRelease(Release release) {
     return repository.findByRelease(release);
   }
+
+  /**
+   * Removes the summary of a project from the caches, after it has been changed.
+   */
+  private void evict(Project project) {
+    if (project.getId() != null) {
+      summariesById.invalidate(project.getId());
+    }
+
+    if (project.getIdentifier() != null) {
+      summariesByIdentifier.invalidate(project.getIdentifier());
+    }
+  }
 }
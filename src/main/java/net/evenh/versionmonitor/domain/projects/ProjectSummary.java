@@ -0,0 +1,58 @@
+package net.evenh.versionmonitor.domain.projects;
+
+import com.fasterxml.jackson.annotation.JsonView;
+import net.evenh.versionmonitor.infrastructure.View;
+
+/**
+ * The summary fields of a project, read without loading the project entity.
+ *
+ * <p>Renders the same as a {@link Project} in the summary view, so list endpoints can use it in
+ * place of the project.</p>
+ */
+public class ProjectSummary {
+  @JsonView(View.Summary.class)
+  private final Long id;
+
+  @JsonView(View.Summary.class)
+  private final String name;
+
+  @JsonView(View.Summary.class)
+  private final String description;
+
+  @JsonView(View.Summary.class)
+  private final String identifier;
+
+  /**
+   * Creates a summary of a project.
+   */
+  public ProjectSummary(Long id, String name, String description, String identifier) {
+    this.id = id;
+    this.name = name;
+    this.description = description;
+    this.identifier = identifier;
+  }
+
+  public Long getId() {
+    return id;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public String getDescription() {
+    return description;
+  }
+
+  public String getIdentifier() {
+    return identifier;
+  }
+
+  @Override
+  public String toString() {
+    return "ProjectSummary{" + "id='" + id + '\''
+      + ", name='" + name + '\''
+      + ", identifier='" + identifier + '\''
+      + '}';
+  }
+}
@@ -0,0 +1,26 @@
+package net.evenh.versionmonitor.domain.releases;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A version index backed by a hash set, for constant time lookups.
+ */
+final class HashedVersionIndex implements KnownVersionIndex {
+  private final Set<String> versions;
+
+  HashedVersionIndex(Collection<String> versions) {
+    this.versions = new HashSet<>(versions);
+  }
+
+  @Override
+  public boolean contains(String version) {
+    return versions.contains(version);
+  }
+
+  @Override
+  public int size() {
+    return versions.size();
+  }
+}
@@ -0,0 +1,37 @@
+package net.evenh.versionmonitor.domain.releases;
+
+import java.util.Collection;
+import java.util.stream.Collectors;
+
+/**
+ * The versions of a project already known to versionmonitor, used to find new releases among the
+ * versions reported by a host.
+ *
+ * <p>Lookups are constant time, so diffing the versions of a host against the index is linear in
+ * the number of remote versions rather than quadratic.</p>
+ */
+public interface KnownVersionIndex {
+  /**
+   * Checks whether a version is already known.
+   */
+  boolean contains(String version);
+
+  /**
+   * The number of known versions.
+   */
+  int size();
+
+  /**
+   * Creates an index of the given versions.
+   */
+  static KnownVersionIndex of(Collection<String> versions) {
+    return new HashedVersionIndex(versions);
+  }
+
+  /**
+   * Creates an index of the versions of the given releases.
+   */
+  static KnownVersionIndex ofReleases(Collection<Release> releases) {
+    return of(releases.stream().map(Release::getVersion).collect(Collectors.toList()));
+  }
+}
@@ -1,5 +1,6 @@
 package net.evenh.versionmonitor.domain.releases;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonView;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
@@ -7,11 +8,17 @@ import java.time.format.DateTimeFormatter;
 import java.util.Date;
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.JoinColumn;
+import javax.persistence.ManyToOne;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
 import javax.validation.constraints.NotNull;
+import net.evenh.versionmonitor.domain.projects.Project;
 import net.evenh.versionmonitor.infrastructure.View;
 
 /**
@@ -21,13 +28,20 @@ import net.evenh.versionmonitor.infrastructure.View;
  * @since 2016-01-09
  */
 @Entity
-@Table(name = "releases")
+@Table(name = "releases",
+    uniqueConstraints = @UniqueConstraint(columnNames = {"project_id", "version"}))
 public class Release {
   @Id
-  @GeneratedValue(strategy = GenerationType.AUTO)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "release_id_seq")
+  @SequenceGenerator(name = "release_id_seq", sequenceName = "release_id_seq", allocationSize = 50)
   @JsonView(View.Summary.class)
   private Long id;
 
+  @ManyToOne(fetch = FetchType.LAZY)
+  @JoinColumn(name = "project_id")
+  @JsonIgnore
+  private Project project;
+
   @NotNull
   @JsonView(View.Summary.class)
   private String version;
@@ -44,6 +58,18 @@ public class Release {
     return id;
   }
 
+  void setId(Long id) {
+    this.id = id;
+  }
+
+  public Project getProject() {
+    return project;
+  }
+
+  public void setProject(Project project) {
+    this.project = project;
+  }
+
   public String getVersion() {
     return version;
   }
@@ -64,6 +90,14 @@ public class Release {
     this.releasedAt = releasedAt;
   }
 
+  /**
+   * Gets the timestamp of the release.
+   */
+  @JsonIgnore
+  public Date getReleasedAtDate() {
+    return releasedAt;
+  }
+
   /**
    * Gets the timestamp of when this project was inserted into the database.
    *
@@ -0,0 +1,167 @@
+package net.evenh.versionmonitor.domain.releases;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import net.evenh.versionmonitor.domain.projects.Project;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Stores new releases of a project.
+ *
+ * <p>All new releases of a project are inserted with a single statement. Releases whose version is
+ * already stored for the project are skipped by the database, through <code>ON CONFLICT DO
+ * NOTHING</code> on the unique (project, version) constraint, and only the releases that were
+ * actually inserted are returned. Concurrent checks and webhooks of the same project can therefore
+ * never store or announce a release twice. Release ids are allocated from the pooled sequence
+ * shared with Hibernate, without a round trip per release.</p>
+ */
+@Service
+public class ReleaseIngestionService {
+  private static final Logger log = LoggerFactory.getLogger(ReleaseIngestionService.class);
+
+  private static final String INSERT_RELEASES = "insert into {h-schema}releases "
+      + "(id, project_id, version, url, released_at) "
+      + "select r.id, :projectId, r.version, r.url, r.released_at "
+      + "from json_to_recordset(cast(:releases as json)) "
+      + "as r(id bigint, version varchar, url varchar, released_at timestamp) "
+      + "on conflict (project_id, version) do nothing "
+      + "returning id";
+
+  private final ReleaseRepository releases;
+  private final ObjectMapper mapper;
+  private final Counter insertedReleases;
+  private final Counter conflictingReleases;
+  private final Timer ingestTimer;
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  /**
+   * Creates an ingestion service reporting to the given meter registry.
+   */
+  @Autowired
+  public ReleaseIngestionService(ReleaseRepository releases, ObjectMapper mapper,
+      MeterRegistry registry) {
+    this.releases = releases;
+    this.mapper = mapper;
+    this.insertedReleases = Counter.builder("versionmonitor.releases.inserted")
+      .description("Number of releases inserted")
+      .register(registry);
+    this.conflictingReleases = Counter.builder("versionmonitor.releases.conflicts")
+      .description("Number of releases skipped as their version was already stored")
+      .register(registry);
+    this.ingestTimer = Timer.builder("versionmonitor.releases.ingest")
+      .description("Time spent inserting the new releases of a project")
+      .register(registry);
+  }
+
+  /**
+   * Indexes the versions already known for a project, without loading its releases.
+   */
+  public KnownVersionIndex knownVersions(Project project) {
+    return KnownVersionIndex.of(releases.findVersionsByProjectId(project.getId()));
+  }
+
+  /**
+   * Finds the releases of a project.
+   */
+  public List<Release> findByProject(Project project) {
+    return releases.findByProjectId(project.getId());
+  }
+
+  /**
+   * Inserts new releases and links them to their project.
+   *
+   * @param project An already persisted project.
+   * @param newReleases Releases not yet known for the project. Versions that are stored by the time
+   *                    of the insert are skipped.
+   * @return The releases that were inserted.
+   */
+  @Transactional
+  public List<Release> ingest(Project project, List<Release> newReleases) {
+    if (newReleases.isEmpty()) {
+      return Collections.emptyList();
+    }
+
+    final long start = System.nanoTime();
+
+    final SharedSessionContractImplementor session =
+        entityManager.unwrap(SharedSessionContractImplementor.class);
+    final IdentifierGenerator ids = session.getFactory().getMetamodel()
+        .entityPersister(Release.class)
+        .getIdentifierGenerator();
+    final ArrayNode rows = mapper.createArrayNode();
+
+    for (Release release : newReleases) {
+      // Releases own the association, so the lazy releases of the project are left untouched
+      release.setProject(project);
+      release.setId((Long) ids.generate(session, release));
+
+      rows.addObject()
+          .put("id", release.getId())
+          .put("version", release.getVersion())
+          .put("url", release.getUrl())
+          .put("released_at", LocalDateTime.ofInstant(
+              release.getReleasedAtDate().toInstant(), ZoneId.systemDefault()).toString());
+    }
+
+    @SuppressWarnings("unchecked")
+    final List<Number> insertedIds = entityManager.createNativeQuery(INSERT_RELEASES)
+        .setParameter("projectId", project.getId())
+        .setParameter("releases", rows.toString())
+        .getResultList();
+
+    final Set<Long> inserted = insertedIds.stream()
+        .map(Number::longValue)
+        .collect(Collectors.toSet());
+    final List<Release> saved = newReleases.stream()
+        .filter(release -> inserted.contains(release.getId()))
+        .collect(Collectors.toList());
+
+    final long elapsed = System.nanoTime() - start;
+
+    ingestTimer.record(elapsed, TimeUnit.NANOSECONDS);
+    insertedReleases.increment(saved.size());
+    conflictingReleases.increment(newReleases.size() - saved.size());
+
+    log.debug("Inserted {} of {} releases for {} in {} ms ({} rows/s)", saved.size(),
+        newReleases.size(), project.getIdentifier(), TimeUnit.NANOSECONDS.toMillis(elapsed),
+        newReleases.size() * TimeUnit.SECONDS.toNanos(1) / Math.max(elapsed, 1));
+
+    return saved;
+  }
+
+  /**
+   * Applies corrections found when comparing the releases of a project with its host.
+   *
+   * @param removed Releases that no longer exist on the host.
+   * @param redated Releases whose date has changed on the host.
+   */
+  @Transactional
+  public void reconcile(Collection<Release> removed, Collection<Release> redated) {
+    if (!removed.isEmpty()) {
+      releases.deleteInBatch(removed);
+    }
+
+    releases.saveAll(redated);
+  }
+}
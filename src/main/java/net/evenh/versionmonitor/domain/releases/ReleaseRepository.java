@@ -1,6 +1,12 @@
 package net.evenh.versionmonitor.domain.releases;
 
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -11,4 +17,57 @@ import org.springframework.stereotype.Repository;
  */
 @Repository
 public interface ReleaseRepository extends JpaRepository<Release, Long> {
+  /**
+   * Finds the releases of a project.
+   */
+  List<Release> findByProjectId(Long projectId);
+
+  /**
+   * Finds a release of a project.
+   */
+  Optional<Release> findByIdAndProjectId(Long id, Long projectId);
+
+  /**
+   * Finds the first page of the releases of a project, newest first.
+   *
+   * @param projectId The project id.
+   * @param versionPattern A <code>like</code> pattern the versions must match, escaped with
+   *                       <code>!</code>.
+   * @param pageable Limits the page size.
+   */
+  @Query("select r from Release r where r.project.id = :projectId "
+      + "and r.version like :versionPattern escape '!' order by r.releasedAt desc, r.id desc")
+  List<Release> findPage(@Param(value = "projectId") Long projectId,
+      @Param(value = "versionPattern") String versionPattern,
+      Pageable pageable);
+
+  /**
+   * Finds a page of the releases of a project, newest first.
+   *
+   * <p>Pages are addressed by the (release time, id) position of the last release of the previous
+   * page, so fetching a page never has to skip over the ones before it.</p>
+   *
+   * @param projectId The project id.
+   * @param versionPattern A <code>like</code> pattern the versions must match, escaped with
+   *                       <code>!</code>.
+   * @param beforeReleasedAt The release time of the last release of the previous page.
+   * @param beforeId The id of the last release of the previous page.
+   * @param pageable Limits the page size.
+   */
+  @Query("select r from Release r where r.project.id = :projectId "
+      + "and r.version like :versionPattern escape '!' "
+      + "and (r.releasedAt < :beforeReleasedAt "
+      + "or (r.releasedAt = :beforeReleasedAt and r.id < :beforeId)) "
+      + "order by r.releasedAt desc, r.id desc")
+  List<Release> findPageBefore(@Param(value = "projectId") Long projectId,
+      @Param(value = "versionPattern") String versionPattern,
+      @Param(value = "beforeReleasedAt") Date beforeReleasedAt,
+      @Param(value = "beforeId") Long beforeId,
+      Pageable pageable);
+
+  /**
+   * Finds the versions of the releases of a project, without loading the releases.
+   */
+  @Query("select r.version from Release r where r.project.id = :projectId")
+  List<String> findVersionsByProjectId(@Param(value = "projectId") Long projectId);
 }
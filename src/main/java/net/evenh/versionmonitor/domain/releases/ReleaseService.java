@@ -0,0 +1,52 @@
+package net.evenh.versionmonitor.domain.releases;
+
+import java.util.List;
+import java.util.Optional;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+/**
+ * Lists the releases of projects.
+ */
+@Service
+public class ReleaseService {
+  private final ReleaseRepository repository;
+
+  @Autowired
+  public ReleaseService(ReleaseRepository repository) {
+    this.repository = repository;
+  }
+
+  /**
+   * Finds a release of a project.
+   */
+  public Optional<Release> findOne(Long projectId, Long id) {
+    return repository.findByIdAndProjectId(id, projectId);
+  }
+
+  /**
+   * Finds a page of the releases of a project, newest first.
+   *
+   * @param projectId The project id.
+   * @param versionPrefix Only releases whose version starts with this are returned, or all
+   *                      releases if null.
+   * @param after The last release of the previous page, or null for the first page.
+   * @param size The maximum number of releases to return.
+   */
+  public List<Release> findPage(Long projectId, String versionPrefix, Release after, int size) {
+    final String pattern = escape(versionPrefix != null ? versionPrefix : "") + "%";
+    final PageRequest page = PageRequest.of(0, size);
+
+    if (after == null) {
+      return repository.findPage(projectId, pattern, page);
+    }
+
+    return repository.findPageBefore(projectId, pattern, after.getReleasedAtDate(), after.getId(),
+        page);
+  }
+
+  private static String escape(String literal) {
+    return literal.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+  }
+}
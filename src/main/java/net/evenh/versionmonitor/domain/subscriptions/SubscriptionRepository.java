@@ -1,8 +1,17 @@
 package net.evenh.versionmonitor.domain.subscriptions;
 
+import java.util.List;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface SubscriptionRepository extends JpaRepository<Subscription, Long> {
+  /**
+   * Finds a page of subscriptions ordered by id.
+   *
+   * @param after The id of the last subscription of the previous page.
+   * @param pageable Limits the page size.
+   */
+  List<Subscription> findByIdGreaterThanOrderByIdAsc(Long after, Pageable pageable);
 }
@@ -0,0 +1,114 @@
+package net.evenh.versionmonitor.domain.validators;
+
+import java.io.Serializable;
+import java.util.Objects;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.Table;
+
+/**
+ * The <code>ETag</code> and <code>Last-Modified</code> validators of a remote resource belonging
+ * to a project, used to make conditional requests to hosts.
+ *
+ * <p>Validators are persisted, so unchanged resources are detected across restarts.</p>
+ */
+@Entity
+@Table(name = "http_validator")
+@IdClass(HttpValidator.Key.class)
+public class HttpValidator {
+  @Id
+  private Long projectId;
+
+  /**
+   * Identifies the resource within the project, such as a single page of a listing.
+   */
+  @Id
+  private String resource;
+
+  private String etag;
+
+  private String lastModified;
+
+  protected HttpValidator() {
+  }
+
+  /**
+   * Creates validators for a resource of a project.
+   */
+  public HttpValidator(Long projectId, String resource, String etag, String lastModified) {
+    this.projectId = projectId;
+    this.resource = resource;
+    this.etag = etag;
+    this.lastModified = lastModified;
+  }
+
+  public Long getProjectId() {
+    return projectId;
+  }
+
+  public String getResource() {
+    return resource;
+  }
+
+  public String getEtag() {
+    return etag;
+  }
+
+  public String getLastModified() {
+    return lastModified;
+  }
+
+  /**
+   * Whether there are any validators to send with a conditional request.
+   */
+  public boolean isPresent() {
+    return etag != null || lastModified != null;
+  }
+
+  @Override
+  public String toString() {
+    return "HttpValidator{"
+      + "projectId='" + projectId + '\''
+      + ", resource='" + resource + '\''
+      + ", etag='" + etag + '\''
+      + ", lastModified='" + lastModified + '\''
+      + '}';
+  }
+
+  /**
+   * Composite primary key of a validator.
+   */
+  public static class Key implements Serializable {
+    private Long projectId;
+    private String resource;
+
+    public Key() {
+    }
+
+    public Key(Long projectId, String resource) {
+      this.projectId = projectId;
+      this.resource = resource;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+
+      Key that = (Key) o;
+
+      return Objects.equals(projectId, that.projectId) && Objects.equals(resource, that.resource);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(projectId, resource);
+    }
+  }
+}
@@ -0,0 +1,13 @@
+package net.evenh.versionmonitor.domain.validators;
+
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * A repository for persisting HTTP validators of remote resources.
+ */
+@Repository
+public interface HttpValidatorRepository extends JpaRepository<HttpValidator, HttpValidator.Key> {
+  List<HttpValidator> findByProjectId(Long projectId);
+}
@@ -0,0 +1,39 @@
+package net.evenh.versionmonitor.domain.validators;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+public class HttpValidatorService {
+  private final HttpValidatorRepository repository;
+
+  @Autowired
+  public HttpValidatorService(HttpValidatorRepository repository) {
+    this.repository = repository;
+  }
+
+  /**
+   * Finds the validators of all resources of a project, by resource.
+   */
+  public Map<String, HttpValidator> findByProject(Long projectId) {
+    return repository.findByProjectId(projectId).stream()
+      .collect(Collectors.toMap(HttpValidator::getResource, Function.identity()));
+  }
+
+  /**
+   * Stores updated validators and removes the ones of resources that no longer exist.
+   *
+   * <p>Callers must only store validators once the content of the response has been processed,
+   * otherwise the next conditional request would skip content that was never seen.</p>
+   */
+  @Transactional
+  public void update(Collection<HttpValidator> updated, Collection<HttpValidator> removed) {
+    repository.saveAll(updated);
+    repository.deleteAll(removed);
+  }
+}
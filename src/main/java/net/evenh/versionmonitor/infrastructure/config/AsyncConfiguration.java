@@ -1,7 +1,10 @@
 package net.evenh.versionmonitor.infrastructure.config;
 
+import java.util.Optional;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 import net.evenh.versionmonitor.infrastructure.config.async.ExceptionHandlingAsyncTaskExecutor;
+import net.evenh.versionmonitor.infrastructure.config.async.VirtualThreads;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.aop.interceptor.AsyncUncaughtExceptionHandler;
@@ -9,6 +12,9 @@ import org.springframework.aop.interceptor.SimpleAsyncUncaughtExceptionHandler;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
 import org.springframework.scheduling.annotation.AsyncConfigurer;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.annotation.EnableScheduling;
@@ -38,6 +44,60 @@ public class AsyncConfiguration implements AsyncConfigurer {
     return new ExceptionHandlingAsyncTaskExecutor(executor);
   }
 
+  /**
+   * Dedicated executor for release checks, so a long check run does not starve other async work.
+   */
+  @Bean(name = "releaseCheckExecutor")
+  public AsyncTaskExecutor releaseCheckExecutor() {
+    log.debug("Creating Release Check Executor");
+    Optional<AsyncTaskExecutor> virtual = virtualThreadExecutor();
+
+    if (virtual.isPresent()) {
+      return virtual.get();
+    }
+
+    final int poolSize = properties.getJobchecker().getPoolSize();
+
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(poolSize);
+    executor.setMaxPoolSize(poolSize);
+    executor.setThreadNamePrefix("release-checker-");
+    return new ExceptionHandlingAsyncTaskExecutor(executor);
+  }
+
+  /**
+   * Executor delivering notifications on virtual threads, or inline on the calling thread when
+   * virtual threads are disabled or unavailable.
+   */
+  @Bean(name = "notificationExecutor")
+  public Executor notificationExecutor() {
+    log.debug("Creating Notification Executor");
+    Optional<AsyncTaskExecutor> virtual = virtualThreadExecutor();
+
+    if (virtual.isPresent()) {
+      return virtual.get();
+    }
+
+    return new SyncTaskExecutor();
+  }
+
+  private Optional<AsyncTaskExecutor> virtualThreadExecutor() {
+    if (!properties.getAsync().isVirtualThreads()) {
+      return Optional.empty();
+    }
+
+    Optional<ExecutorService> executor = VirtualThreads.newPerTaskExecutor();
+
+    if (!executor.isPresent()) {
+      log.warn("Virtual threads were requested, but are not supported by this JVM. "
+          + "Falling back to thread pools.");
+      return Optional.empty();
+    }
+
+    return Optional.of(new ExceptionHandlingAsyncTaskExecutor(
+        new TaskExecutorAdapter(executor.get())));
+  }
+
   @Override
   public AsyncUncaughtExceptionHandler getAsyncUncaughtExceptionHandler() {
     return new SimpleAsyncUncaughtExceptionHandler();
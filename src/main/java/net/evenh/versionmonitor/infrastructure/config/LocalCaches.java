@@ -0,0 +1,73 @@
+package net.evenh.versionmonitor.infrastructure.config;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader.InvalidCacheLoadException;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates bounded in-process caches of entities.
+ *
+ * <p>Entries expire after <code>versionmonitor.cache.time-to-live-seconds</code>, and every cache
+ * holds at most <code>versionmonitor.cache.maximum-size</code> entries, evicting the least recently
+ * used ones. Hits, misses, evictions and load times of every cache are reported through the
+ * <code>cache.*</code> metrics, tagged with the name of the cache.</p>
+ *
+ * <p>Only entities that were found are cached. An entity may be added by another node at any time,
+ * so not finding it is never remembered.</p>
+ */
+@Component
+public class LocalCaches {
+  private final VersionmonitorConfiguration props;
+  private final MeterRegistry registry;
+
+  @Autowired
+  public LocalCaches(VersionmonitorConfiguration props, MeterRegistry registry) {
+    this.props = props;
+    this.registry = registry;
+  }
+
+  /**
+   * Creates a cache and registers its metrics.
+   *
+   * @param name The name of the cache in the metrics.
+   */
+  public <K, V> Cache<K, V> create(String name) {
+    final Cache<K, V> cache = CacheBuilder.newBuilder()
+        .maximumSize(props.getCache().getMaximumSize())
+        .expireAfterWrite(props.getCache().getTimeToLiveSeconds(), TimeUnit.SECONDS)
+        .recordStats()
+        .build();
+
+    return GuavaCacheMetrics.monitor(registry, cache, name);
+  }
+
+  /**
+   * Gets a cached value, loading it if it is missing and caching it if it was found.
+   *
+   * @return The value, or empty if it was neither cached nor found by the loader.
+   * @throws RuntimeException Thrown if the value could not be loaded.
+   */
+  public static <K, V> Optional<V> get(Cache<K, V> cache, K key, Supplier<Optional<V>> loader) {
+    try {
+      // Guava does not cache a null value, but counts it as a failed load
+      return Optional.of(cache.get(key, () -> loader.get().orElse(null)));
+    } catch (InvalidCacheLoadException e) {
+      return Optional.empty();
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+
+      throw new IllegalStateException("Could not load cached value of " + key, e.getCause());
+    }
+  }
+}
@@ -1,10 +1,24 @@
 package net.evenh.versionmonitor.infrastructure.config;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.io.File;
-import java.util.UUID;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
 import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import net.evenh.versionmonitor.infrastructure.config.http.CacheMetricsInterceptor;
+import net.evenh.versionmonitor.infrastructure.config.http.NetworkInterceptor;
 import okhttp3.Cache;
+import okhttp3.Interceptor;
 import okhttp3.OkHttpClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.http.client.OkHttp3ClientHttpRequestFactory;
 import org.springframework.stereotype.Component;
@@ -12,30 +26,129 @@ import org.springframework.web.client.RestTemplate;
 
 @Component
 public class RestConfiguration {
+  private static final Logger log = LoggerFactory.getLogger(RestConfiguration.class);
+
+  /**
+   * Directories named like this were created by earlier versions, which used a random cache
+   * directory on every start.
+   */
+  private static final Pattern ORPHANED_CACHE_DIRECTORY =
+      Pattern.compile("[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}");
+
+  /**
+   * Cache directories used more recently than this may belong to another running process.
+   */
+  private static final Duration ORPHANED_AFTER = Duration.ofDays(7);
+
   @Bean
   public RestTemplate okHttpRestTemplate(OkHttpClient client) {
     return new RestTemplate(new OkHttp3ClientHttpRequestFactory(client));
   }
 
+  /**
+   * Configures the shared HTTP client, including every interceptor bean. Network interceptors,
+   * such as the GitHub rate limit budget, are added after the cache.
+   */
   @Bean
-  public OkHttpClient okHttpClient(Cache cache) {
-    return new OkHttpClient.Builder()
+  public OkHttpClient okHttpClient(Cache cache, ObjectProvider<Interceptor> interceptors) {
+    final OkHttpClient.Builder builder = new OkHttpClient.Builder()
       .cache(cache)
       .connectTimeout(30, TimeUnit.SECONDS)
       .followRedirects(true)
-      .readTimeout(5, TimeUnit.MINUTES)
-      .build();
+      .readTimeout(5, TimeUnit.MINUTES);
+
+    interceptors.orderedStream().forEach(interceptor -> {
+      if (interceptor instanceof NetworkInterceptor) {
+        builder.addNetworkInterceptor(interceptor);
+      } else {
+        builder.addInterceptor(interceptor);
+      }
+    });
+
+    return builder.build();
   }
 
   /**
    * Configures HTTP cache, mainly used for GitHub communication but can be reused.
+   *
+   * <p>The cache lives in a stable directory, so it survives restarts and deploys.</p>
    */
   @Bean
   public Cache cache(VersionmonitorConfiguration props) {
-    final String randomFileName = UUID.randomUUID().toString();
-    final File cacheDir = new File(System.getProperty("java.io.tmpdir"), randomFileName);
-    final Integer cacheSize = props.getHttp().getCache().getCachesize();
+    final VersionmonitorConfiguration.Http.Cache config = props.getHttp().getCache();
+    final File cacheDir = new File(config.getDirectory());
+    final Integer cacheSize = config.getCachesize();
+
+    if (config.isCleanupOrphans()) {
+      deleteOrphanedDirectories(cacheDir);
+    }
+
+    final Cache cache = new Cache(cacheDir, cacheSize * 1024L * 1024L);
+
+    if (config.isPrewarm()) {
+      try {
+        cache.initialize();
+        log.info("HTTP cache in {} holds {} kB", cacheDir, cache.size() / 1024);
+      } catch (IOException e) {
+        log.warn("Could not initialize HTTP cache in {}", cacheDir, e);
+      }
+    }
+
+    return cache;
+  }
+
+  /**
+   * Counts cache hits, misses and conditional hits per host, and reports the size of the cache.
+   */
+  @Bean
+  public CacheMetricsInterceptor cacheMetricsInterceptor(MeterRegistry registry, Cache cache) {
+    Gauge.builder("versionmonitor.http.cache.size", cache, RestConfiguration::sizeOf)
+      .description("Bytes stored in the HTTP cache")
+      .baseUnit("bytes")
+      .register(registry);
+
+    Gauge.builder("versionmonitor.http.cache.max.size", cache, Cache::maxSize)
+      .description("Maximum number of bytes stored in the HTTP cache")
+      .baseUnit("bytes")
+      .register(registry);
+
+    return new CacheMetricsInterceptor(registry);
+  }
+
+  private static double sizeOf(Cache cache) {
+    try {
+      return cache.size();
+    } catch (IOException e) {
+      return Double.NaN;
+    }
+  }
+
+  /**
+   * Deletes cache directories left behind in <code>java.io.tmpdir</code> by earlier versions.
+   *
+   * <p>Only directories holding an OkHttp cache journal that has not been written to for a week
+   * are deleted, as other processes may keep a live cache under a similar name.</p>
+   */
+  private static void deleteOrphanedDirectories(File cacheDir) {
+    final File tmpDir = new File(System.getProperty("java.io.tmpdir"));
+    final long orphanedBefore = System.currentTimeMillis() - ORPHANED_AFTER.toMillis();
+    final File[] orphans = tmpDir.listFiles(file -> file.isDirectory()
+        && ORPHANED_CACHE_DIRECTORY.matcher(file.getName()).matches()
+        && new File(file, "journal").isFile()
+        && new File(file, "journal").lastModified() < orphanedBefore
+        && !file.getAbsoluteFile().equals(cacheDir.getAbsoluteFile()));
+
+    if (orphans == null) {
+      return;
+    }
 
-    return new Cache(cacheDir, cacheSize * 1024 * 1024);
+    for (File orphan : orphans) {
+      try (Stream<Path> paths = Files.walk(orphan.toPath())) {
+        paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        log.info("Deleted orphaned HTTP cache directory {}", orphan);
+      } catch (IOException e) {
+        log.warn("Could not delete orphaned HTTP cache directory {}", orphan, e);
+      }
+    }
   }
 }
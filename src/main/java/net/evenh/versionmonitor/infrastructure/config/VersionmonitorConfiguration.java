@@ -1,6 +1,10 @@
 package net.evenh.versionmonitor.infrastructure.config;
 
-import javax.validation.constraints.NotNull;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 import org.springframework.web.cors.CorsConfiguration;
@@ -13,14 +17,20 @@ import org.springframework.web.cors.CorsConfiguration;
 @Component
 @ConfigurationProperties(prefix = "versionmonitor", ignoreInvalidFields = true)
 public class VersionmonitorConfiguration {
+  private final Api api = new Api();
   private final Async async = new Async();
   private final Http http = new Http();
   private final Cache cache = new Cache();
   private final CorsConfiguration cors = new CorsConfiguration();
   private final Slack slack = new Slack();
   private final Github github = new Github();
+  private final Npm npm = new Npm();
   private final Jobchecker jobchecker = new Jobchecker();
 
+  public Api getApi() {
+    return api;
+  }
+
   public Async getAsync() {
     return async;
   }
@@ -45,10 +55,49 @@ public class VersionmonitorConfiguration {
     return github;
   }
 
+  public Npm getNpm() {
+    return npm;
+  }
+
   public Jobchecker getJobchecker() {
     return jobchecker;
   }
 
+  public static class Api {
+
+    private int defaultPageSize = 100;
+
+    private int maxPageSize = 1000;
+
+    public int getDefaultPageSize() {
+      return defaultPageSize;
+    }
+
+    public void setDefaultPageSize(int defaultPageSize) {
+      this.defaultPageSize = defaultPageSize;
+    }
+
+    public int getMaxPageSize() {
+      return maxPageSize;
+    }
+
+    public void setMaxPageSize(int maxPageSize) {
+      this.maxPageSize = maxPageSize;
+    }
+
+    /**
+     * Limits a requested page size to the configured maximum, using the default if none was
+     * requested.
+     */
+    public int pageSize(Integer requested) {
+      if (requested == null || requested < 1) {
+        return defaultPageSize;
+      }
+
+      return Math.min(requested, maxPageSize);
+    }
+  }
+
   public static class Async {
 
     private int corePoolSize = 2;
@@ -57,6 +106,8 @@ public class VersionmonitorConfiguration {
 
     private int queueCapacity = 10000;
 
+    private boolean virtualThreads = false;
+
     public int getCorePoolSize() {
       return corePoolSize;
     }
@@ -80,6 +131,14 @@ public class VersionmonitorConfiguration {
     public void setQueueCapacity(int queueCapacity) {
       this.queueCapacity = queueCapacity;
     }
+
+    public boolean isVirtualThreads() {
+      return virtualThreads;
+    }
+
+    public void setVirtualThreads(boolean virtualThreads) {
+      this.virtualThreads = virtualThreads;
+    }
   }
 
   public static class Http {
@@ -96,6 +155,13 @@ public class VersionmonitorConfiguration {
 
       private int cachesize = 10;
 
+      private String directory =
+          new File(System.getProperty("java.io.tmpdir"), "versionmonitor-http-cache").getPath();
+
+      private boolean cleanupOrphans = false;
+
+      private boolean prewarm = true;
+
       public int getTimeToLiveInDays() {
         return timeToLiveInDays;
       }
@@ -111,6 +177,30 @@ public class VersionmonitorConfiguration {
       public void setCachesize(int cachesize) {
         this.cachesize = cachesize;
       }
+
+      public String getDirectory() {
+        return directory;
+      }
+
+      public void setDirectory(String directory) {
+        this.directory = directory;
+      }
+
+      public boolean isCleanupOrphans() {
+        return cleanupOrphans;
+      }
+
+      public void setCleanupOrphans(boolean cleanupOrphans) {
+        this.cleanupOrphans = cleanupOrphans;
+      }
+
+      public boolean isPrewarm() {
+        return prewarm;
+      }
+
+      public void setPrewarm(boolean prewarm) {
+        this.prewarm = prewarm;
+      }
     }
   }
 
@@ -118,6 +208,8 @@ public class VersionmonitorConfiguration {
 
     private int timeToLiveSeconds = 3600;
 
+    private long maximumSize = 10000;
+
     public int getTimeToLiveSeconds() {
       return timeToLiveSeconds;
     }
@@ -125,6 +217,14 @@ public class VersionmonitorConfiguration {
     public void setTimeToLiveSeconds(int timeToLiveSeconds) {
       this.timeToLiveSeconds = timeToLiveSeconds;
     }
+
+    public long getMaximumSize() {
+      return maximumSize;
+    }
+
+    public void setMaximumSize(long maximumSize) {
+      this.maximumSize = maximumSize;
+    }
   }
 
   public static class Slack {
@@ -141,9 +241,27 @@ public class VersionmonitorConfiguration {
 
   public static class Github {
     private Integer ratelimitBuffer = 20;
-    @NotNull
+
+    private int ratelimitBurst = 10;
+
+    private int ratelimitMaxWaitSeconds = 30;
+
     private String oauthToken;
 
+    private List<String> oauthTokens = new ArrayList<>();
+
+    private String apiUrl = "https://api.github.com";
+
+    private FetchMode fetchMode = FetchMode.REST;
+
+    private String graphqlUrl = "https://api.github.com/graphql";
+
+    private int graphqlBatchSize = 50;
+
+    private final Reconciliation reconciliation = new Reconciliation();
+
+    private final Webhook webhook = new Webhook();
+
     public Integer getRatelimitBuffer() {
       return ratelimitBuffer;
     }
@@ -152,6 +270,22 @@ public class VersionmonitorConfiguration {
       this.ratelimitBuffer = ratelimitBuffer;
     }
 
+    public int getRatelimitBurst() {
+      return ratelimitBurst;
+    }
+
+    public void setRatelimitBurst(int ratelimitBurst) {
+      this.ratelimitBurst = ratelimitBurst;
+    }
+
+    public int getRatelimitMaxWaitSeconds() {
+      return ratelimitMaxWaitSeconds;
+    }
+
+    public void setRatelimitMaxWaitSeconds(int ratelimitMaxWaitSeconds) {
+      this.ratelimitMaxWaitSeconds = ratelimitMaxWaitSeconds;
+    }
+
     public String getOauthToken() {
       return oauthToken;
     }
@@ -159,11 +293,275 @@ public class VersionmonitorConfiguration {
     public void setOauthToken(String oauthToken) {
       this.oauthToken = oauthToken;
     }
+
+    public List<String> getOauthTokens() {
+      return oauthTokens;
+    }
+
+    public void setOauthTokens(List<String> oauthTokens) {
+      this.oauthTokens = oauthTokens;
+    }
+
+    public String getApiUrl() {
+      return apiUrl;
+    }
+
+    public void setApiUrl(String apiUrl) {
+      this.apiUrl = apiUrl;
+    }
+
+    public FetchMode getFetchMode() {
+      return fetchMode;
+    }
+
+    public void setFetchMode(FetchMode fetchMode) {
+      this.fetchMode = fetchMode;
+    }
+
+    public String getGraphqlUrl() {
+      return graphqlUrl;
+    }
+
+    public void setGraphqlUrl(String graphqlUrl) {
+      this.graphqlUrl = graphqlUrl;
+    }
+
+    public int getGraphqlBatchSize() {
+      return graphqlBatchSize;
+    }
+
+    public void setGraphqlBatchSize(int graphqlBatchSize) {
+      this.graphqlBatchSize = graphqlBatchSize;
+    }
+
+    public Reconciliation getReconciliation() {
+      return reconciliation;
+    }
+
+    public Webhook getWebhook() {
+      return webhook;
+    }
+
+    /**
+     * How tags are fetched from GitHub during release checks.
+     */
+    public enum FetchMode {
+      /**
+       * One conditional REST listing per repository.
+       */
+      REST,
+
+      /**
+       * The latest tags of many repositories per GraphQL query.
+       */
+      GRAPHQL
+    }
+
+    public static class Reconciliation {
+
+      private String cron = "0 30 3 * * ?";
+
+      private int intervalDays = 7;
+
+      private int batchSize = 50;
+
+      public String getCron() {
+        return cron;
+      }
+
+      public void setCron(String cron) {
+        this.cron = cron;
+      }
+
+      public int getIntervalDays() {
+        return intervalDays;
+      }
+
+      public void setIntervalDays(int intervalDays) {
+        this.intervalDays = intervalDays;
+      }
+
+      public int getBatchSize() {
+        return batchSize;
+      }
+
+      public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+      }
+    }
+
+    public static class Webhook {
+
+      private String secret;
+
+      private int pollIntervalMinutes = 1440;
+
+      private int activeDays = 7;
+
+      public String getSecret() {
+        return secret;
+      }
+
+      public void setSecret(String secret) {
+        this.secret = secret;
+      }
+
+      public int getPollIntervalMinutes() {
+        return pollIntervalMinutes;
+      }
+
+      public void setPollIntervalMinutes(int pollIntervalMinutes) {
+        this.pollIntervalMinutes = pollIntervalMinutes;
+      }
+
+      public int getActiveDays() {
+        return activeDays;
+      }
+
+      public void setActiveDays(int activeDays) {
+        this.activeDays = activeDays;
+      }
+    }
+  }
+
+  public static class Npm {
+    private String registryUrl = "https://registry.npmjs.org";
+
+    private FetchMode fetchMode = FetchMode.FULL;
+
+    private final Changes changes = new Changes();
+
+    public String getRegistryUrl() {
+      return registryUrl;
+    }
+
+    public void setRegistryUrl(String registryUrl) {
+      this.registryUrl = registryUrl;
+    }
+
+    public FetchMode getFetchMode() {
+      return fetchMode;
+    }
+
+    public void setFetchMode(FetchMode fetchMode) {
+      this.fetchMode = fetchMode;
+    }
+
+    public Changes getChanges() {
+      return changes;
+    }
+
+    /**
+     * Following the changes feed of the registry, instead of polling every package.
+     */
+    public static class Changes {
+      private boolean enabled = false;
+
+      private String url = "https://replicate.npmjs.com";
+
+      private String cron = "0 * * * * ?";
+
+      private int batchSize = 1000;
+
+      private int maxBatches = 50;
+
+      private int pollIntervalMinutes = 1440;
+
+      public boolean isEnabled() {
+        return enabled;
+      }
+
+      public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+      }
+
+      public String getUrl() {
+        return url;
+      }
+
+      public void setUrl(String url) {
+        this.url = url;
+      }
+
+      public String getCron() {
+        return cron;
+      }
+
+      public void setCron(String cron) {
+        this.cron = cron;
+      }
+
+      public int getBatchSize() {
+        return batchSize;
+      }
+
+      public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+      }
+
+      public int getMaxBatches() {
+        return maxBatches;
+      }
+
+      public void setMaxBatches(int maxBatches) {
+        this.maxBatches = maxBatches;
+      }
+
+      public int getPollIntervalMinutes() {
+        return pollIntervalMinutes;
+      }
+
+      public void setPollIntervalMinutes(int pollIntervalMinutes) {
+        this.pollIntervalMinutes = pollIntervalMinutes;
+      }
+    }
+
+    /**
+     * Which registry documents are fetched during release checks.
+     */
+    public enum FetchMode {
+      /**
+       * The full document of every package on every check.
+       */
+      FULL,
+
+      /**
+       * The abbreviated install metadata, and the full document only when there are new versions,
+       * for their release times.
+       */
+      ABBREVIATED
+    }
   }
 
   public static class Jobchecker {
     private String cron;
 
+    private int poolSize = 8;
+
+    private int pageSize = 100;
+
+    private int defaultHostConcurrency = 4;
+
+    private int minIntervalMinutes = 5;
+
+    private int maxIntervalMinutes = 1440;
+
+    private double cadenceFraction = 0.1;
+
+    private int cadenceSampleSize = 10;
+
+    private int failureBackoffMinutes = 15;
+
+    private int notFoundBackoffMinutes = 1440;
+
+    private int maxBackoffMinutes = 10080;
+
+    private int slowLaneFailures = 5;
+
+    private final Map<String, Integer> hostConcurrency = new HashMap<>();
+
+    private final Leases leases = new Leases();
+
     public String getCron() {
       return cron;
     }
@@ -171,5 +569,144 @@ public class VersionmonitorConfiguration {
     public void setCron(String cron) {
       this.cron = cron;
     }
+
+    public int getPoolSize() {
+      return poolSize;
+    }
+
+    public void setPoolSize(int poolSize) {
+      this.poolSize = poolSize;
+    }
+
+    public int getPageSize() {
+      return pageSize;
+    }
+
+    public void setPageSize(int pageSize) {
+      this.pageSize = pageSize;
+    }
+
+    public int getDefaultHostConcurrency() {
+      return defaultHostConcurrency;
+    }
+
+    public void setDefaultHostConcurrency(int defaultHostConcurrency) {
+      this.defaultHostConcurrency = defaultHostConcurrency;
+    }
+
+    public Map<String, Integer> getHostConcurrency() {
+      return hostConcurrency;
+    }
+
+    public int getMinIntervalMinutes() {
+      return minIntervalMinutes;
+    }
+
+    public void setMinIntervalMinutes(int minIntervalMinutes) {
+      this.minIntervalMinutes = minIntervalMinutes;
+    }
+
+    public int getMaxIntervalMinutes() {
+      return maxIntervalMinutes;
+    }
+
+    public void setMaxIntervalMinutes(int maxIntervalMinutes) {
+      this.maxIntervalMinutes = maxIntervalMinutes;
+    }
+
+    public double getCadenceFraction() {
+      return cadenceFraction;
+    }
+
+    public void setCadenceFraction(double cadenceFraction) {
+      this.cadenceFraction = cadenceFraction;
+    }
+
+    public int getCadenceSampleSize() {
+      return cadenceSampleSize;
+    }
+
+    public void setCadenceSampleSize(int cadenceSampleSize) {
+      this.cadenceSampleSize = cadenceSampleSize;
+    }
+
+    public int getFailureBackoffMinutes() {
+      return failureBackoffMinutes;
+    }
+
+    public void setFailureBackoffMinutes(int failureBackoffMinutes) {
+      this.failureBackoffMinutes = failureBackoffMinutes;
+    }
+
+    public int getNotFoundBackoffMinutes() {
+      return notFoundBackoffMinutes;
+    }
+
+    public void setNotFoundBackoffMinutes(int notFoundBackoffMinutes) {
+      this.notFoundBackoffMinutes = notFoundBackoffMinutes;
+    }
+
+    public int getMaxBackoffMinutes() {
+      return maxBackoffMinutes;
+    }
+
+    public void setMaxBackoffMinutes(int maxBackoffMinutes) {
+      this.maxBackoffMinutes = maxBackoffMinutes;
+    }
+
+    public int getSlowLaneFailures() {
+      return slowLaneFailures;
+    }
+
+    public void setSlowLaneFailures(int slowLaneFailures) {
+      this.slowLaneFailures = slowLaneFailures;
+    }
+
+    public Leases getLeases() {
+      return leases;
+    }
+
+    public static class Leases {
+
+      private boolean enabled = false;
+
+      private String nodeId;
+
+      private int batchSize = 50;
+
+      private int durationSeconds = 600;
+
+      public boolean isEnabled() {
+        return enabled;
+      }
+
+      public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+      }
+
+      public String getNodeId() {
+        return nodeId;
+      }
+
+      public void setNodeId(String nodeId) {
+        this.nodeId = nodeId;
+      }
+
+      public int getBatchSize() {
+        return batchSize;
+      }
+
+      public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+      }
+
+      public int getDurationSeconds() {
+        return durationSeconds;
+      }
+
+      public void setDurationSeconds(int durationSeconds) {
+        this.durationSeconds = durationSeconds;
+      }
+    }
   }
 }
@@ -0,0 +1,48 @@
+package net.evenh.versionmonitor.infrastructure.config.async;
+
+import java.lang.reflect.Method;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Looks up virtual thread support at runtime, as the application is built for JVMs without it.
+ */
+public final class VirtualThreads {
+  private static final Logger log = LoggerFactory.getLogger(VirtualThreads.class);
+
+  private VirtualThreads() {
+  }
+
+  /**
+   * Tells whether the running JVM supports virtual threads.
+   */
+  public static boolean isSupported() {
+    try {
+      Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+      return true;
+    } catch (NoSuchMethodException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Creates an executor starting a new virtual thread for each task.
+   *
+   * @return The executor, or empty if the running JVM does not support virtual threads.
+   */
+  public static Optional<ExecutorService> newPerTaskExecutor() {
+    try {
+      Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+      return Optional.of((ExecutorService) factory.invoke(null));
+    } catch (NoSuchMethodException e) {
+      log.debug("Virtual threads are not supported by this JVM");
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      log.warn("Could not create virtual thread executor", e);
+    }
+
+    return Optional.empty();
+  }
+}
@@ -0,0 +1,68 @@
+package net.evenh.versionmonitor.infrastructure.config.http;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import okhttp3.Interceptor;
+import okhttp3.Response;
+
+/**
+ * Counts how the HTTP cache served each request, per host.
+ *
+ * <p>Every response is counted under <code>versionmonitor.http.cache</code> with one of these
+ * results:</p>
+ *
+ * <ul>
+ *   <li><code>hit</code>: served from the cache without touching the network.</li>
+ *   <li><code>conditional_hit</code>: revalidated with the host, which answered
+ *   <code>304 Not Modified</code>, and served from the cache.</li>
+ *   <li><code>not_modified</code>: a conditional request made by the application itself, which the
+ *   host answered with <code>304 Not Modified</code>. The cache never served these.</li>
+ *   <li><code>miss</code>: fetched in full from the host.</li>
+ * </ul>
+ *
+ * <p>Requests reaching the network, whether conditional or not, are also counted under
+ * <code>versionmonitor.http.network</code>.</p>
+ */
+public class CacheMetricsInterceptor implements Interceptor {
+  private final MeterRegistry registry;
+
+  public CacheMetricsInterceptor(MeterRegistry registry) {
+    this.registry = registry;
+  }
+
+  @Override
+  public Response intercept(Chain chain) throws IOException {
+    final Response response = chain.proceed(chain.request());
+    final String host = chain.request().url().host();
+    final Response network = response.networkResponse();
+
+    if (network == null) {
+      count("versionmonitor.http.cache", host, "hit");
+      return response;
+    }
+
+    count("versionmonitor.http.network", host, null);
+    count("versionmonitor.http.cache", host, networkResult(response, network));
+
+    return response;
+  }
+
+  private static String networkResult(Response response, Response network) {
+    if (network.code() != 304) {
+      return "miss";
+    }
+
+    return response.cacheResponse() != null ? "conditional_hit" : "not_modified";
+  }
+
+  private void count(String name, String host, String result) {
+    final Counter.Builder counter = Counter.builder(name).tag("host", host);
+
+    if (result != null) {
+      counter.tag("result", result);
+    }
+
+    counter.register(registry).increment();
+  }
+}
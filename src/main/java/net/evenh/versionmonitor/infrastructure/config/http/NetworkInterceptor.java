@@ -0,0 +1,11 @@
+package net.evenh.versionmonitor.infrastructure.config.http;
+
+import okhttp3.Interceptor;
+
+/**
+ * An interceptor that only sees requests that go to the network, after the HTTP cache. Responses
+ * served from the cache never reach it, and conditional requests reach it with the validators
+ * the cache added.
+ */
+public interface NetworkInterceptor extends Interceptor {
+}
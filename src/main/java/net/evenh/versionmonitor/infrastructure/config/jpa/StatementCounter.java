@@ -0,0 +1,26 @@
+package net.evenh.versionmonitor.infrastructure.config.jpa;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on each thread.
+ *
+ * <p>Registered through <code>hibernate.session_factory.statement_inspector</code>. Code that wants
+ * to know how many queries a piece of work costs reads {@link #count()} before and after it.</p>
+ */
+public class StatementCounter implements StatementInspector {
+  private static final ThreadLocal<long[]> statements = ThreadLocal.withInitial(() -> new long[1]);
+
+  @Override
+  public String inspect(String sql) {
+    statements.get()[0]++;
+    return sql;
+  }
+
+  /**
+   * The number of statements prepared on the current thread so far.
+   */
+  public static long count() {
+    return statements.get()[0];
+  }
+}
@@ -0,0 +1,2 @@
+create index releases_project_released_at_idx on releases (project_id, released_at desc, id desc);
+create index releases_project_version_idx on releases (project_id, version varchar_pattern_ops);
@@ -0,0 +1,13 @@
+-- Keep the first stored release of every version of a project
+delete from releases r
+  using releases d
+  where r.project_id = d.project_id and r.version = d.version and r.id > d.id;
+
+-- Also serves lookups of the releases of a project, and is the conflict target of release inserts
+alter table releases
+  add constraint releases_project_version_key unique (project_id, version);
+
+-- Projects are looked up by identifier when added. Duplicate projects, which the API has never
+-- allowed to be added, must be removed by hand before this migration can run
+alter table project
+  add constraint project_identifier_key unique (identifier);
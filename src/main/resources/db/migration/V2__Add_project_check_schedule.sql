@@ -0,0 +1,4 @@
+alter table project add column next_check_at timestamp not null default now();
+alter table project add column check_interval_seconds bigint;
+
+create index project_next_check_at_idx on project (next_check_at, id);
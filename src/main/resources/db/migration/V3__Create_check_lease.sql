@@ -0,0 +1,8 @@
+create table if not exists check_lease (
+  project_id bigint       not null constraint check_lease_pkey primary key
+    constraint check_lease_project_fkey references project on delete cascade,
+  owner      varchar(255) not null,
+  expires_at timestamp    not null
+);
+
+create index check_lease_expires_at_idx on check_lease (expires_at);
@@ -0,0 +1,4 @@
+-- Release ids are allocated in blocks of 50, allowing new releases to be inserted in JDBC batches
+create sequence release_id_seq increment by 50;
+
+select setval('release_id_seq', (select coalesce(max(id), 0) + 100 from releases));
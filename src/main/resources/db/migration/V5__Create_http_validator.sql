@@ -0,0 +1,8 @@
+create table if not exists http_validator (
+  project_id    bigint       not null
+    constraint http_validator_project_fkey references project on delete cascade,
+  resource      varchar(255) not null,
+  etag          varchar(255),
+  last_modified varchar(255),
+  constraint http_validator_pkey primary key (project_id, resource)
+);
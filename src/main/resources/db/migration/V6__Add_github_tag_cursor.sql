@@ -0,0 +1,5 @@
+alter table project_github add column tag_cursor varchar(255);
+alter table project_github add column tag_cursor_date timestamp;
+alter table project_github add column reconciled_at timestamp;
+
+create index project_github_reconciled_at_idx on project_github (reconciled_at);
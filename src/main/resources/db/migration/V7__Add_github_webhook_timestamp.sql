@@ -0,0 +1 @@
+alter table project_github add column pushed_at timestamp;
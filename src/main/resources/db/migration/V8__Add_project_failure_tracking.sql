@@ -0,0 +1,5 @@
+alter table project add column failure_count integer not null default 0;
+alter table project add column last_failure_at timestamp;
+alter table project add column failure_reason varchar(1000);
+
+create index project_failure_count_idx on project (failure_count) where failure_count > 0;
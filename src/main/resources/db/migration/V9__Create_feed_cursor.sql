@@ -0,0 +1,5 @@
+create table if not exists feed_cursor (
+  name       varchar(255) not null constraint feed_cursor_pkey primary key,
+  since      varchar(255) not null,
+  updated_at timestamp    not null
+);